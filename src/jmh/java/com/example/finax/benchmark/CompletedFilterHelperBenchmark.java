@@ -0,0 +1,26 @@
+package com.example.finax.benchmark;
+
+import com.example.finax.util.CompletedFilterHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the status parameter to completion filter mapping.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompletedFilterHelperBenchmark {
+
+    @Param({"completed", "PENDING", "all"})
+    private String status;
+
+    @Benchmark
+    public Boolean getCompletedFilter() {
+        return CompletedFilterHelper.getCompletedFilter(status);
+    }
+}
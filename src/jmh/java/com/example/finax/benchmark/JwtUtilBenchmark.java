@@ -0,0 +1,59 @@
+package com.example.finax.benchmark;
+
+import com.example.finax.auth.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures token issuing and validation, with the verified-token cache both
+ * warm (hot clients re-sending the same token) and disabled (first sighting).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    static final String SECRET =
+            "sZ+OWEfUj5PysUIzMkaBohypWo6C8AZwWS4K71mcVbdbK+mr4BdGUh6NKbxm+zTIK4KraJ5n7MHI1BU3KOsODQ==";
+
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cachingJwtUtil = newJwtUtil(60);
+        uncachedJwtUtil = newJwtUtil(0);
+        token = cachingJwtUtil.generateToken("bench@example.com");
+    }
+
+    static JwtUtil newJwtUtil(long tokenCacheTtlSeconds) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 86_400_000L);
+        ReflectionTestUtils.setField(jwtUtil, "tokenCacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(jwtUtil, "tokenCacheTtlSeconds", tokenCacheTtlSeconds);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        return jwtUtil;
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtUtil.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public String validateTokenCached() {
+        return cachingJwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String validateTokenUncached() {
+        return uncachedJwtUtil.validateToken(token);
+    }
+}
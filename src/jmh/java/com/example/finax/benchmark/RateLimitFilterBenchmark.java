@@ -0,0 +1,93 @@
+package com.example.finax.benchmark;
+
+import com.example.finax.config.InMemoryRateLimitStore;
+import com.example.finax.config.RateLimitFilter;
+import com.example.finax.config.RateLimitKeyResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures RateLimitFilter under contention from 8 threads, both on a single
+ * hot client key and spread over many client keys, with and without local
+ * token prefetching.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private RateLimitFilter rateLimitFilter;
+
+    @Param({"1", "10"})
+    public long prefetchBatchSize;
+
+    @Setup
+    public void setup() {
+        // Large capacity so the benchmark measures the allow path rather than 429 responses
+        InMemoryRateLimitStore store = new InMemoryRateLimitStore();
+        ReflectionTestUtils.setField(store, "capacity", Long.MAX_VALUE / 2);
+        ReflectionTestUtils.setField(store, "refillPeriod", Duration.ofMinutes(30));
+        ReflectionTestUtils.invokeMethod(store, "init");
+
+        RateLimitKeyResolver keyResolver = new RateLimitKeyResolver();
+        ReflectionTestUtils.setField(keyResolver, "trustedProxies", new String[0]);
+        ReflectionTestUtils.invokeMethod(keyResolver, "init");
+
+        rateLimitFilter = new RateLimitFilter();
+        ReflectionTestUtils.setField(rateLimitFilter, "rateLimitStore", store);
+        ReflectionTestUtils.setField(rateLimitFilter, "keyResolver", keyResolver);
+        ReflectionTestUtils.setField(rateLimitFilter, "prefetchBatchSize", prefetchBatchSize);
+        ReflectionTestUtils.setField(rateLimitFilter, "prefetchMaxHold", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(rateLimitFilter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(rateLimitFilter, "init");
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        MockHttpServletRequest sameKeyRequest;
+        MockHttpServletRequest[] spreadRequests;
+        MockHttpServletResponse response;
+
+        @Setup
+        public void setup() {
+            sameKeyRequest = new MockHttpServletRequest("GET", "/api/todos");
+            sameKeyRequest.setRemoteAddr("10.0.0.1");
+            spreadRequests = new MockHttpServletRequest[1024];
+            for (int i = 0; i < spreadRequests.length; i++) {
+                spreadRequests[i] = new MockHttpServletRequest("GET", "/api/todos");
+                spreadRequests[i].setRemoteAddr("10.1." + (i / 256) + "." + (i % 256));
+            }
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Benchmark
+    public int sameClientKey(Client client) throws Exception {
+        client.response.reset();
+        rateLimitFilter.doFilter(client.sameKeyRequest, client.response, NO_OP_CHAIN);
+        return client.response.getStatus();
+    }
+
+    @Benchmark
+    public int spreadClientKeys(Client client) throws Exception {
+        client.response.reset();
+        MockHttpServletRequest request =
+                client.spreadRequests[ThreadLocalRandom.current().nextInt(client.spreadRequests.length)];
+        rateLimitFilter.doFilter(request, client.response, NO_OP_CHAIN);
+        return client.response.getStatus();
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.finax.benchmark;
+
+import com.example.finax.config.TodoPageResponseConverter;
+import com.example.finax.dto.SuccessResponse;
+import com.example.finax.dto.todo.TodoDto;
+import com.example.finax.dto.todo.TodoPageResponse;
+import com.example.finax.mapper.TodoMapper;
+import com.example.finax.model.Todo;
+import com.example.finax.repository.TodoView;
+import com.example.finax.util.PageHelper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the list response envelope (PageHelper.toMap +
+ * SuccessResponse) and serializing it with the JSON mapper Spring MVC uses,
+ * against the projection path (TodoView rows written by TodoPageResponseConverter).
+ * Run with "-prof gc" to see allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final TodoPageResponseConverter converter = new TodoPageResponseConverter();
+    private List<Todo> todos;
+    private Page<TodoDto> page;
+    private Page<TodoView> viewPage;
+
+    @Setup
+    public void setup() {
+        TodoMapper todoMapper = new TodoMapper();
+        todos = TodoMapperBenchmark.sampleTodos(pageSize);
+        List<TodoDto> dtos = todos.stream()
+                .map(todoMapper::mapToDto)
+                .toList();
+        page = new PageImpl<>(dtos, PageRequest.of(0, pageSize), 100_000L);
+        List<TodoView> views = todos.stream()
+                .map(todo -> new TodoView(todo.getId(), todo.getTitle(), todo.getDescription(), todo.isCompleted(),
+                        todo.getVersion(), todo.getCreatedAt(), todo.getUpdatedAt()))
+                .toList();
+        viewPage = new PageImpl<>(views, PageRequest.of(0, pageSize), 100_000L);
+    }
+
+    @Benchmark
+    public Map<String, Object> toMap() {
+        return PageHelper.toMap(page);
+    }
+
+    @Benchmark
+    public byte[] toMapAndSerialize() {
+        return jsonMapper.writeValueAsBytes(SuccessResponse.of(PageHelper.toMap(page), "Todos fetched successfully"));
+    }
+
+    /**
+     * Previous list path from the entities the repository returned: map to DTOs, wrap and serialize.
+     */
+    @Benchmark
+    public byte[] entityMapAndSerialize() {
+        TodoMapper todoMapper = new TodoMapper();
+        Page<TodoDto> dtos = new PageImpl<>(todos, PageRequest.of(0, pageSize), 100_000L).map(todoMapper::mapToDto);
+        return jsonMapper.writeValueAsBytes(SuccessResponse.of(PageHelper.toMap(dtos), "Todos fetched successfully"));
+    }
+
+    /**
+     * Current list path: TodoView rows from the repository written by the streaming converter.
+     */
+    @Benchmark
+    public byte[] projectionWrite() throws IOException {
+        BufferedOutputMessage message = new BufferedOutputMessage();
+        converter.write(new TodoPageResponse(viewPage, "Todos fetched successfully"), MediaType.APPLICATION_JSON, message);
+        return message.body.toByteArray();
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(8192);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.finax.benchmark;
+
+import com.example.finax.dto.todo.TodoDto;
+import com.example.finax.mapper.TodoMapper;
+import com.example.finax.model.Todo;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures entity to DTO mapping over a full page of todos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TodoMapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private final TodoMapper todoMapper = new TodoMapper();
+    private List<Todo> todos;
+
+    @Setup
+    public void setup() {
+        todos = sampleTodos(pageSize);
+    }
+
+    static List<Todo> sampleTodos(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Todo> todos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            todos.add(Todo.builder()
+                    .id((long) i)
+                    .title("Todo number " + i)
+                    .description("Description for todo number " + i + " with some extra text")
+                    .completed(i % 3 == 0)
+                    .createdAt(now.minusMinutes(i))
+                    .updatedAt(now)
+                    .build());
+        }
+        return todos;
+    }
+
+    @Benchmark
+    public List<TodoDto> mapPage() {
+        List<TodoDto> dtos = new ArrayList<>(todos.size());
+        for (Todo todo : todos) {
+            dtos.add(todoMapper.mapToDto(todo));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.finax.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of the load test harness, run through the loadtest Maven profile.
+ * <pre>
+ * seed  - bulk-load the load test users and their todos into PostgreSQL
+ * run   - replay the request mix against a running instance and write the report
+ * all   - seed, then run
+ * </pre>
+ * The command is followed by --name=value options, see LoadTestSeeder and LoadTestRunner.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoadTestMain seed|run|all [--name=value ...]");
+            System.exit(2);
+        }
+        String command = args[0];
+        LoadTestOptions options = new LoadTestOptions(Arrays.copyOfRange(args, 1, args.length));
+        switch (command) {
+            case "seed" -> new LoadTestSeeder().seed(options);
+            case "run" -> new LoadTestRunner().run(options);
+            case "all" -> {
+                new LoadTestSeeder().seed(options);
+                new LoadTestRunner().run(options);
+            }
+            default -> {
+                System.err.println("Unknown command " + command + ", expected seed, run or all");
+                System.exit(2);
+            }
+        }
+    }
+}
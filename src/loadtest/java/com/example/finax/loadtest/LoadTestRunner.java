@@ -0,0 +1,396 @@
+package com.example.finax.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a weighted mix of API calls against a running instance. Every
+ * virtual user logs in as one of the seeded users and then loops: pick an
+ * operation by weight, send it, record its latency, optionally wait thinkTime.
+ * Requests during the warmup are sent but not recorded. Latencies are kept in
+ * one HdrHistogram per operation and written as JSON to the output file.
+ * The load is closed-loop: a slow server lowers the request rate instead of
+ * queueing requests, so percentiles are per completed request.
+ */
+public class LoadTestRunner {
+
+    private static final String DEFAULT_MIX = "list=40,search=10,toggle=25,create=10,stats=10,login=5";
+    private static final int PAGE_SIZE = 20;
+    private static final int KNOWN_TODOS = 100;
+    private static final List<String> OPERATIONS = List.of("list", "search", "toggle", "create", "stats", "login");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+
+    private volatile boolean recording;
+
+    private HttpClient client;
+    private String baseUrl;
+    private String password;
+    private int seededUsers;
+    private Duration thinkTime;
+
+    /**
+     * Options: baseUrl, virtualUsers, users, password, warmup, duration, thinkTime, mix, seed, output.
+     */
+    public void run(LoadTestOptions options) throws IOException, InterruptedException {
+        baseUrl = options.get("baseUrl", "http://localhost:8080");
+        password = options.get("password", LoadTestSeeder.DEFAULT_PASSWORD);
+        seededUsers = options.getInt("users", 1000);
+        thinkTime = options.getDuration("thinkTime", Duration.ZERO);
+        int virtualUsers = options.getInt("virtualUsers", 50);
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(10));
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        long seed = options.getLong("seed", 42);
+        Map<String, Integer> mix = parseMix(options.get("mix", DEFAULT_MIX));
+        Path output = Path.of(options.get("output", "loadtest-result.json"));
+
+        // Every operation, not only those in the mix: login and list are also sent to get a token or todo ids
+        for (String operation : OPERATIONS) {
+            stats.put(operation, new OperationStats());
+        }
+        Mix weighted = new Mix(mix);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("Running %d virtual users against %s: %s warmup, %s measured, mix %s%n",
+                virtualUsers, baseUrl, warmup, duration, mix);
+        long deadline = System.nanoTime() + warmup.plus(duration).toNanos();
+        Instant startedAt;
+        long measuredNanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < virtualUsers; i++) {
+                VirtualUser user = new VirtualUser(i, weighted, new Random(seed + i));
+                executor.submit(() -> user.loop(deadline));
+            }
+            Thread.sleep(warmup.toMillis());
+            recording = true;
+            startedAt = Instant.now();
+            long measureStart = System.nanoTime();
+            executor.shutdown();
+            executor.awaitTermination(duration.toMillis() + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+            measuredNanos = System.nanoTime() - measureStart;
+        }
+
+        ObjectNode report = report(startedAt, measuredNanos / 1e9, virtualUsers, mix);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        objectMapper.writeValue(output.toFile(), report);
+        printSummary(report);
+        System.out.printf("Report written to %s%n", output.toAbsolutePath());
+    }
+
+    private ObjectNode report(Instant startedAt, double seconds, int virtualUsers, Map<String, Integer> mix) {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("startedAt", startedAt.toString());
+        report.put("durationSeconds", seconds);
+        report.put("virtualUsers", virtualUsers);
+        report.put("baseUrl", baseUrl);
+        ObjectNode mixNode = report.putObject("mix");
+        mix.forEach(mixNode::put);
+
+        ObjectNode endpoints = report.putObject("endpoints");
+        Histogram total = new Histogram(3);
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            Histogram latencies = operation.latencies.copy();
+            total.add(latencies);
+            totalRequests += latencies.getTotalCount();
+            totalErrors += operation.errors.sum();
+
+            ObjectNode node = endpoints.putObject(entry.getKey());
+            writeCounts(node, latencies.getTotalCount(), operation.errors.sum(), seconds);
+            ObjectNode statusCodes = node.putObject("statusCodes");
+            operation.statusCodes.forEach((status, count) -> statusCodes.put(String.valueOf(status), count.sum()));
+            writeLatencies(node, latencies);
+        }
+        ObjectNode totalNode = report.putObject("total");
+        writeCounts(totalNode, totalRequests, totalErrors, seconds);
+        writeLatencies(totalNode, total);
+        return report;
+    }
+
+    private static void writeCounts(ObjectNode node, long requests, long errors, double seconds) {
+        node.put("requests", requests);
+        node.put("errors", errors);
+        node.put("throughputPerSecond", seconds > 0 ? requests / seconds : 0);
+    }
+
+    // Histograms hold microseconds, the report milliseconds
+    private static void writeLatencies(ObjectNode node, Histogram latencies) {
+        ObjectNode ms = node.putObject("latencyMs");
+        ms.put("p50", latencies.getValueAtPercentile(50) / 1000.0);
+        ms.put("p90", latencies.getValueAtPercentile(90) / 1000.0);
+        ms.put("p95", latencies.getValueAtPercentile(95) / 1000.0);
+        ms.put("p99", latencies.getValueAtPercentile(99) / 1000.0);
+        ms.put("p999", latencies.getValueAtPercentile(99.9) / 1000.0);
+        ms.put("max", latencies.getMaxValue() / 1000.0);
+        ms.put("mean", latencies.getMean() / 1000.0);
+    }
+
+    private static void printSummary(ObjectNode report) {
+        System.out.printf("%-8s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        report.get("endpoints").properties().forEach(e -> printRow(e.getKey(), e.getValue()));
+        printRow("total", report.get("total"));
+    }
+
+    private static void printRow(String name, JsonNode node) {
+        JsonNode ms = node.get("latencyMs");
+        System.out.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name,
+                node.get("requests").asLong(), node.get("errors").asLong(), node.get("throughputPerSecond").asDouble(),
+                ms.get("p50").asDouble(), ms.get("p95").asDouble(), ms.get("p99").asDouble(), ms.get("max").asDouble());
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            String operation = pair[0].trim();
+            if (!OPERATIONS.contains(operation)) {
+                throw new IllegalArgumentException("Unknown operation in mix: " + operation);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operation with a positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static class OperationStats {
+        // Microseconds; auto-resizing, so no request is too slow to record
+        final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    }
+
+    private static class Mix {
+        private final String[] operations;
+        private final int[] cumulative;
+
+        Mix(Map<String, Integer> weights) {
+            operations = weights.keySet().toArray(String[]::new);
+            cumulative = new int[operations.length];
+            int sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += weights.get(operations[i]);
+                cumulative[i] = sum;
+            }
+        }
+
+        String pick(Random random) {
+            int value = random.nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (value < cumulative[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+    }
+
+    private class VirtualUser {
+        private final String email;
+        private final Mix mix;
+        private final Random random;
+        private final TextGenerator text = new TextGenerator();
+        // Ids seen in list and create responses, the targets of toggles
+        private final List<Long> todoIds = new ArrayList<>();
+        private String token;
+
+        VirtualUser(int index, Mix mix, Random random) {
+            this.email = LoadTestSeeder.email(index % seededUsers);
+            this.mix = mix;
+            this.random = random;
+        }
+
+        void loop(long deadline) {
+            while (System.nanoTime() < deadline) {
+                try {
+                    if (token == null) {
+                        login();
+                        if (token == null) {
+                            // Locked out or rate limited: back off instead of hammering the login endpoint
+                            Thread.sleep(1000);
+                            continue;
+                        }
+                    }
+                    String operation = mix.pick(random);
+                    switch (operation) {
+                        case "list" -> list();
+                        case "search" -> send("search", get("/api/todos/search?keyword="
+                                + URLEncoder.encode(text.keyword(random), StandardCharsets.UTF_8)));
+                        case "toggle" -> toggle();
+                        case "create" -> create();
+                        case "stats" -> send("stats", get("/api/todos/stats"));
+                        case "login" -> login();
+                        default -> throw new IllegalStateException(operation);
+                    }
+                    if (!thinkTime.isZero()) {
+                        Thread.sleep(thinkTime.toMillis());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        private void login() throws InterruptedException {
+            String body = json(Map.of("email", email, "password", password));
+            HttpResponse<String> response = send("login", HttpRequest.newBuilder(uri("/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)));
+            JsonNode data = data(response);
+            token = data != null ? data.path("token").asText(null) : null;
+        }
+
+        private void list() throws InterruptedException {
+            int page = random.nextInt(5);
+            JsonNode data = data(send("list", get("/api/todos?page=" + page + "&size=" + PAGE_SIZE)));
+            if (data != null) {
+                for (JsonNode todo : data.path("todos")) {
+                    remember(todo.path("id").asLong());
+                }
+            }
+        }
+
+        private void toggle() throws InterruptedException {
+            if (todoIds.isEmpty()) {
+                list();
+                return;
+            }
+            long id = todoIds.get(random.nextInt(todoIds.size()));
+            HttpResponse<String> response = send("toggle", authorized(HttpRequest.newBuilder(uri("/api/todos/" + id + "/toggle"))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())));
+            if (response != null && response.statusCode() == 404) {
+                todoIds.remove(Long.valueOf(id));
+            }
+        }
+
+        private void create() throws InterruptedException {
+            Map<String, Object> todo = new LinkedHashMap<>();
+            todo.put("title", text.title(random));
+            todo.put("description", text.description(random));
+            todo.put("completed", false);
+            JsonNode data = data(send("create", authorized(HttpRequest.newBuilder(uri("/api/todos"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json(todo))))));
+            if (data != null && data.has("id")) {
+                remember(data.get("id").asLong());
+            }
+        }
+
+        private void remember(long id) {
+            if (todoIds.contains(id)) {
+                return;
+            }
+            if (todoIds.size() >= KNOWN_TODOS) {
+                todoIds.remove(random.nextInt(todoIds.size()));
+            }
+            todoIds.add(id);
+        }
+
+        private HttpRequest.Builder get(String path) {
+            return authorized(HttpRequest.newBuilder(uri(path)).GET());
+        }
+
+        private HttpRequest.Builder authorized(HttpRequest.Builder request) {
+            return request.header("Authorization", "Bearer " + token);
+        }
+
+        /**
+         * Sends the request and records it under the operation.
+         *
+         * @return The response, or null when the request failed without one
+         */
+        private HttpResponse<String> send(String operation, HttpRequest.Builder request) throws InterruptedException {
+            OperationStats operationStats = stats.get(operation);
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                // Timeouts and refused connections count as requests too, under status 0
+                if (recording) {
+                    operationStats.latencies.recordValue((System.nanoTime() - start) / 1000);
+                    operationStats.errors.increment();
+                    operationStats.statusCodes.computeIfAbsent(0, s -> new LongAdder()).increment();
+                }
+                return null;
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+
+            int status = response.statusCode();
+            if (recording) {
+                operationStats.latencies.recordValue(micros);
+                operationStats.statusCodes.computeIfAbsent(status, s -> new LongAdder()).increment();
+                if (status >= 400) {
+                    operationStats.errors.increment();
+                }
+            }
+            if (status == 401 && !"login".equals(operation)) {
+                // Expired or revoked token: log in again before the next request
+                token = null;
+            }
+            return response;
+        }
+
+        private JsonNode data(HttpResponse<String> response) {
+            if (response == null || response.statusCode() >= 400) {
+                return null;
+            }
+            try {
+                return objectMapper.readTree(response.body()).path("data");
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        private String json(Object value) {
+            try {
+                return objectMapper.writeValueAsString(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private URI uri(String path) {
+            return URI.create(baseUrl + path);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.finax.loadtest;
+
+import com.example.finax.util.CsvHelper;
+import com.example.finax.util.TodoIdBlocks;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds N load test users with about M todos each straight into PostgreSQL
+ * with COPY, without going through the API. Users are loadtest-{i}@example.com
+ * and share one password; todo counts per user vary between M/2 and 3M/2,
+ * about 40% of the todos are completed and 5% soft-deleted, spread over the
+ * last year. Existing load test users and their todos are replaced.
+ */
+public class LoadTestSeeder {
+
+    private static final String EMAIL_PATTERN = "loadtest-%d@example.com";
+    private static final String EMAIL_LIKE = "loadtest-%@example.com";
+    static final String DEFAULT_PASSWORD = "loadtest-password";
+
+    private static final String USERS_COPY_SQL = """
+        COPY users (name, email, password, created_at, updated_at, deleted)
+        FROM STDIN WITH (FORMAT csv)
+        """;
+
+    // Ids are supplied in blocks like Hibernate allocates them; the column default would use up a block per row
+    private static final String TODOS_COPY_SQL = """
+        COPY todos (id, title, description, completed, user_id, created_at, updated_at, deleted, version)
+        FROM STDIN WITH (FORMAT csv)
+        """;
+
+    // Bulk loads would otherwise write one change event per todo; the transaction holds the table lock anyway
+    private static final String[] CHANGE_TRIGGERS = {
+            "todos_change_events_insert", "todos_change_events_delete"
+    };
+
+    private static final String COUNTERS_SQL = """
+        INSERT INTO todo_counters (user_id, total, completed, deleted, updated_at)
+        SELECT u.id,
+               count(t.id) FILTER (WHERE NOT t.deleted),
+               count(t.id) FILTER (WHERE NOT t.deleted AND t.completed),
+               count(t.id) FILTER (WHERE t.deleted),
+               LOCALTIMESTAMP
+        FROM users u
+        LEFT JOIN todos t ON t.user_id = u.id
+        WHERE u.email LIKE '%s'
+        GROUP BY u.id
+        ON CONFLICT (user_id) DO UPDATE
+        SET total = EXCLUDED.total,
+            completed = EXCLUDED.completed,
+            deleted = EXCLUDED.deleted,
+            change_version = todo_counters.change_version + 1,
+            updated_at = LOCALTIMESTAMP
+        """.formatted(EMAIL_LIKE);
+
+    private static final int COPY_BUFFER_CHARS = 1 << 20;
+
+    static String email(int index) {
+        return EMAIL_PATTERN.formatted(index);
+    }
+
+    /**
+     * Options: jdbcUrl, dbUser, dbPassword, users, todosPerUser, password, bcryptCost, seed.
+     */
+    public void seed(LoadTestOptions options) throws SQLException {
+        int users = options.getInt("users", 1000);
+        int todosPerUser = options.getInt("todosPerUser", 200);
+        String password = options.get("password", DEFAULT_PASSWORD);
+        // At least the server's cost (finax.auth.bcrypt.strength), a lower one is re-hashed at every user's first login
+        int bcryptCost = options.getInt("bcryptCost", 12);
+        Random random = new Random(options.getLong("seed", 42));
+        TextGenerator text = new TextGenerator();
+
+        long started = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(
+                options.get("jdbcUrl", "jdbc:postgresql://localhost:5432/finax"),
+                options.get("dbUser", "finax"),
+                options.get("dbPassword", "finax"))) {
+            connection.setAutoCommit(false);
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+
+            try (Statement statement = connection.createStatement()) {
+                for (String trigger : CHANGE_TRIGGERS) {
+                    statement.execute("ALTER TABLE todos DISABLE TRIGGER " + trigger);
+                }
+                int deleted = statement.executeUpdate("DELETE FROM users WHERE email LIKE '" + EMAIL_LIKE + "'");
+                if (deleted > 0) {
+                    System.out.printf("Removed %d previous load test users%n", deleted);
+                }
+            }
+
+            // All users share one hash: hashing N passwords would dominate the seeding time
+            String passwordHash = new BCryptPasswordEncoder(bcryptCost).encode(password);
+            String now = LocalDateTime.now().toString();
+            StringBuilder userRows = new StringBuilder(users * 128);
+            for (int i = 0; i < users; i++) {
+                userRows.append(CsvHelper.quote("Load Test User " + i)).append(',')
+                        .append(CsvHelper.quote(email(i))).append(',')
+                        .append(CsvHelper.quote(passwordHash)).append(',')
+                        .append(now).append(',').append(now).append(",false\n");
+            }
+            copy.copyIn(USERS_COPY_SQL, new StringReader(userRows.toString()));
+
+            List<Long> userIds = new ArrayList<>(users);
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT id FROM users WHERE email LIKE '" + EMAIL_LIKE + "' ORDER BY id")) {
+                while (rs.next()) {
+                    userIds.add(rs.getLong(1));
+                }
+            }
+
+            int[] counts = new int[userIds.size()];
+            long todos = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = todosPerUser / 2 + random.nextInt(todosPerUser + 1);
+                todos += counts[i];
+            }
+            // One block more: the first value of a new sequence only covers id 1
+            TodoIdBlocks ids = fetchIds(connection, TodoIdBlocks.blocksFor(todos) + 1);
+            copyTodos(copy, userIds, counts, ids, random, text);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(COUNTERS_SQL);
+                for (String trigger : CHANGE_TRIGGERS) {
+                    statement.execute("ALTER TABLE todos ENABLE TRIGGER " + trigger);
+                }
+            }
+            connection.commit();
+
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE users");
+                statement.execute("ANALYZE todos");
+            }
+            System.out.printf("Seeded %d users and %d todos in %.1f s%n",
+                    users, todos, (System.nanoTime() - started) / 1e9);
+        }
+    }
+
+    private static TodoIdBlocks fetchIds(Connection connection, int blocks) throws SQLException {
+        List<Long> values = new ArrayList<>(blocks);
+        try (PreparedStatement statement = connection.prepareStatement(TodoIdBlocks.NEXT_BLOCKS_SQL)) {
+            statement.setInt(1, blocks);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    values.add(rs.getLong(1));
+                }
+            }
+        }
+        return new TodoIdBlocks(values);
+    }
+
+    private void copyTodos(CopyManager copy, List<Long> userIds, int[] counts, TodoIdBlocks ids, Random random,
+                           TextGenerator text) throws SQLException {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        CopyIn copyIn = copy.copyIn(TODOS_COPY_SQL);
+        try {
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_CHARS + 4096);
+            for (int u = 0; u < userIds.size(); u++) {
+                long userId = userIds.get(u);
+                for (int i = 0; i < counts[u]; i++) {
+                    String description = text.description(random);
+                    LocalDateTime createdAt = now.minusMinutes(random.nextInt(365 * 24 * 60));
+                    rows.append(ids.next()).append(',')
+                            .append(CsvHelper.quote(text.title(random))).append(',')
+                            .append(description == null ? "" : CsvHelper.quote(description)).append(',')
+                            .append(random.nextInt(10) < 4).append(',')
+                            .append(userId).append(',')
+                            .append(createdAt).append(',')
+                            .append(createdAt).append(',')
+                            .append(random.nextInt(20) == 0).append(",0\n");
+                    if (rows.length() >= COPY_BUFFER_CHARS) {
+                        write(copyIn, rows);
+                    }
+                }
+            }
+            write(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.finax.loadtest;
+
+import java.util.Random;
+
+/**
+ * Generates todo titles, descriptions and search keywords. Words are drawn
+ * from a Zipf distribution over a fixed vocabulary, like natural text: a few
+ * words occur in a large share of all todos and most words are rare, so
+ * full-text searches cover both very broad and very selective keywords.
+ */
+public class TextGenerator {
+
+    private static final String[] VERBS = {
+            "buy", "call", "finish", "review", "write", "send", "fix", "update", "book", "check",
+            "prepare", "clean", "pay", "plan", "schedule", "read", "order", "return", "renew", "email",
+            "organize", "cancel", "submit", "test", "deploy", "backup", "print", "sign", "pick", "water"
+    };
+
+    private static final String[] NOUNS = {
+            "groceries", "report", "invoice", "meeting", "dentist", "car", "presentation", "budget", "tickets", "laundry",
+            "kitchen", "rent", "insurance", "passport", "mom", "doctor", "project", "slides", "contract", "taxes",
+            "birthday", "gift", "flight", "hotel", "garden", "plants", "bike", "library", "books", "homework",
+            "assignment", "client", "proposal", "website", "server", "database", "backup", "release", "review", "notes",
+            "team", "manager", "interview", "resume", "bank", "loan", "subscription", "newsletter", "blog", "photos",
+            "vacation", "garage", "windows", "roof", "plumber", "electrician", "milk", "eggs", "bread", "coffee",
+            "vet", "dog", "cat", "school", "teacher", "recital", "gym", "yoga", "bills", "receipts",
+            "warranty", "laptop", "phone", "charger", "printer", "ink", "paint", "furniture", "sofa", "desk",
+            "license", "registration", "permit", "appointment", "prescription", "pharmacy", "dinner", "lunch", "party", "wedding",
+            "conference", "workshop", "course", "exam", "thesis", "paper", "article", "podcast", "video", "recycling"
+    };
+
+    private static final String[] FILLERS = {
+            "before", "after", "the", "for", "with", "and", "on", "next", "this", "at",
+            "today", "tomorrow", "friday", "monday", "week", "morning", "evening", "office", "home", "asap"
+    };
+
+    private static final double ZIPF_EXPONENT = 1.1;
+
+    private final double[] verbWeights = zipfCumulative(VERBS.length);
+    private final double[] nounWeights = zipfCumulative(NOUNS.length);
+    private final double[] fillerWeights = zipfCumulative(FILLERS.length);
+
+    /**
+     * @return A title of two to eight words, e.g. "call dentist before friday"
+     */
+    public String title(Random random) {
+        StringBuilder title = new StringBuilder(48);
+        title.append(pick(VERBS, verbWeights, random)).append(' ').append(pick(NOUNS, nounWeights, random));
+        int extraWords = random.nextInt(7);
+        for (int i = 0; i < extraWords; i++) {
+            title.append(' ').append(random.nextInt(3) == 0
+                    ? pick(NOUNS, nounWeights, random)
+                    : pick(FILLERS, fillerWeights, random));
+        }
+        return title.toString();
+    }
+
+    /**
+     * @return One to three sentences of free text, or null for about a third of all todos
+     */
+    public String description(Random random) {
+        if (random.nextInt(3) == 0) {
+            return null;
+        }
+        StringBuilder description = new StringBuilder(160);
+        int sentences = 1 + random.nextInt(3);
+        for (int s = 0; s < sentences; s++) {
+            if (s > 0) {
+                description.append(' ');
+            }
+            int words = 4 + random.nextInt(12);
+            for (int w = 0; w < words; w++) {
+                String word = w % 3 == 1 ? pick(NOUNS, nounWeights, random) : pick(FILLERS, fillerWeights, random);
+                if (w == 0) {
+                    description.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                } else {
+                    description.append(' ').append(word);
+                }
+            }
+            description.append('.');
+        }
+        return description.toString();
+    }
+
+    /**
+     * @return A search keyword with the same frequency distribution as the generated text
+     */
+    public String keyword(Random random) {
+        return random.nextInt(4) == 0 ? pick(VERBS, verbWeights, random) : pick(NOUNS, nounWeights, random);
+    }
+
+    private static String pick(String[] words, double[] cumulative, Random random) {
+        double target = random.nextDouble() * cumulative[cumulative.length - 1];
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return words[low];
+    }
+
+    private static double[] zipfCumulative(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1.0 / Math.pow(rank, ZIPF_EXPONENT);
+            cumulative[rank - 1] = sum;
+        }
+        return cumulative;
+    }
+}
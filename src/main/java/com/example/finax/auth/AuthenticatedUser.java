@@ -0,0 +1,20 @@
+package com.example.finax.auth;
+
+import com.example.finax.model.User;
+
+/**
+ * Immutable security principal of an authenticated request, resolved by
+ * JwtFilter. Unlike the User entity it carries no password hash and no lazy
+ * todos collection, so it is cheap to cache and safe to use outside a
+ * persistence context; services work with the id only.
+ *
+ * @param id    The user id
+ * @param email The user email (JWT subject)
+ * @param name  The user's display name
+ */
+public record AuthenticatedUser(Long id, String email, String name) {
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName());
+    }
+}
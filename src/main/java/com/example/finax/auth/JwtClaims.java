@@ -0,0 +1,18 @@
+package com.example.finax.auth;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable view of the claims of a verified access token.
+ *
+ * @param subject   The token subject (user email)
+ * @param expiresAt The instant the token expires
+ * @param id        The jti claim used for revocation, null for tokens issued without one
+ */
+public record JwtClaims(String subject, Instant expiresAt, UUID id) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.finax.auth;
 
-import com.example.finax.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
@@ -13,16 +15,41 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     @Autowired
-    private  UserRepository userRepository;
+    private  PrincipalCache principalCache;
 
     @Autowired
     private  JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // One timer per phase and outcome, registered once instead of on every request
+    private Timer validTokenTimer;
+    private Timer invalidTokenTimer;
+    private Timer revokedTokenTimer;
+    private Timer principalFoundTimer;
+    private Timer principalNotFoundTimer;
+
+    @PostConstruct
+    void init() {
+        validTokenTimer = timer("validation", "valid");
+        invalidTokenTimer = timer("validation", "invalid");
+        revokedTokenTimer = timer("validation", "revoked");
+        principalFoundTimer = timer("lookup", "found");
+        principalNotFoundTimer = timer("lookup", "not_found");
+    }
+
     /**
      * Processes each HTTP request to extract and validate JWT tokens.
      * Sets up Spring Security authentication context if valid token is found.
@@ -39,21 +66,40 @@ public class JwtFilter extends OncePerRequestFilter {
         // Extract Authorization header from request
         String header = request.getHeader("Authorization");
         String token;
-        String email = null;
+        JwtClaims claims = null;
 
         if (header != null && header.startsWith("Bearer ")) {
             token = header.substring(7);
 
-            email = jwtUtil.validateToken(token);
+            // Verify the token once; the claims carry the subject used for the principal lookup.
+            // Revocation is an in-memory lookup, the revoked jti set is synced in the background
+            long start = System.nanoTime();
+            claims = jwtUtil.parseToken(token);
+            Timer timer = validTokenTimer;
+            if (claims == null) {
+                timer = invalidTokenTimer;
+            } else if (tokenRevocationList.isRevoked(claims.id())) {
+                timer = revokedTokenTimer;
+                claims = null;
+            }
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            userRepository.findByEmail(email).ifPresent(user -> {
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            JwtClaims verified = claims;
+            // Resolve the user from the principal cache (database only on a miss)
+            long start = System.nanoTime();
+            Optional<AuthenticatedUser> principal = principalCache.get(verified.subject());
+            (principal.isPresent() ? principalFoundTimer : principalNotFoundTimer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            principal.ifPresent(user -> {
                 // Create authentication token with user as principal
                 // No credentials needed (null) as JWT validation already occurred
                 // No authorities/roles set (null) - could be enhanced for role-based access
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(user, null, null);
+                // The claims identify the access token, e.g. for revoking it at logout
+                authToken.setDetails(verified);
                 // Set authentication in Spring Security context for this request
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             });
@@ -61,4 +107,11 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private Timer timer(String phase, String outcome) {
+        return Timer.builder("finax.auth.jwt")
+                .description("JWT validation and principal lookup time")
+                .tags("phase", phase, "outcome", outcome)
+                .register(meterRegistry);
+    }
+}
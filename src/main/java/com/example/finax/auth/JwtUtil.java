@@ -1,15 +1,23 @@
 package com.example.finax.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -20,6 +28,53 @@ public class JwtUtil {
     @Value("${finax.jwtAccessTokenValidity}")
     private long jwtExpirationMs;
 
+    @Value("${finax.tokenCache.maxSize:10000}")
+    private long tokenCacheMaxSize;
+
+    @Value("${finax.tokenCache.ttlSeconds:60}")
+    private long tokenCacheTtlSeconds;
+
+    // Decoded once at startup; both are immutable and thread-safe
+    private SecretKey accessKey;
+    private JwtParser parser;
+
+    // Verified tokens keyed by SHA-256 of the token, so repeated bearer tokens skip HMAC verification
+    private Cache<String, JwtClaims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        // Decode the Base64-encoded secret key and create the signing key once
+        byte[] decodedKey = Base64.getDecoder().decode(jwtSecret);
+        accessKey = Keys.hmacShaKeyFor(decodedKey);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(accessKey)
+                .build();
+
+        Duration maxTtl = Duration.ofSeconds(tokenCacheTtlSeconds);
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaxSize)
+                .expireAfter(new Expiry<String, JwtClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+                        // Never keep a token cached past its own expiry
+                        Duration untilExpiry = Duration.between(Instant.now(), claims.expiresAt());
+                        Duration ttl = untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+                        return Math.max(ttl.toNanos(), 0L);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /**
      * Generates a JWT access token for the given user email.
      * 
@@ -27,14 +82,34 @@ public class JwtUtil {
      * @return A signed JWT token string containing user email and expiration info
      */
     public String generateToken(String email) {
+        return generateToken(email, UUID.randomUUID(), accessTokenExpiry());
+    }
+
+    /**
+     * Generates a JWT access token with a known id, so it can be revoked later.
+     *
+     * @param email     The user's email address to be used as the token subject
+     * @param jti       The token id (jti claim)
+     * @param expiresAt The token expiry, see accessTokenExpiry()
+     * @return A signed JWT token string
+     */
+    public String generateToken(String email, UUID jti, Instant expiresAt) {
         return Jwts.builder()
                 .setSubject(email)
+                .setId(jti.toString())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(accessKey(), SignatureAlgorithm.HS512)
+                .setExpiration(Date.from(expiresAt))
+                .signWith(accessKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * @return The expiry of an access token issued now
+     */
+    public Instant accessTokenExpiry() {
+        return Instant.now().plusMillis(jwtExpirationMs);
+    }
+
     /**
      * Validates a JWT token and extracts the user email from it.
      * 
@@ -42,25 +117,52 @@ public class JwtUtil {
      * @return The user email if token is valid, null if invalid or expired
      */
     public String validateToken(String token) {
+        JwtClaims claims = parseToken(token);
+        return claims != null ? claims.subject() : null;
+    }
+
+    /**
+     * Verifies a JWT token exactly once and returns its claims.
+     * Recently verified tokens are served from an in-memory cache until they
+     * expire, so hot clients re-sending the same token skip signature checks.
+     *
+     * @param token The JWT token string to validate
+     * @return The verified claims, null if the token is invalid or expired
+     */
+    public JwtClaims parseToken(String token) {
+        String key = hash(token);
+        Instant now = Instant.now();
+
+        JwtClaims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return cached;
+            }
+            verifiedTokens.invalidate(key);
+            return null;
+        }
+
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(accessKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return Jwts.parserBuilder()
-                    .setSigningKey(accessKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException e) {
+            Claims body = parser.parseClaimsJws(token).getBody();
+            if (body.getSubject() == null || body.getExpiration() == null) {
+                return null;
+            }
+            JwtClaims claims = new JwtClaims(body.getSubject(), body.getExpiration().toInstant(),
+                    body.getId() != null ? UUID.fromString(body.getId()) : null);
+            verifiedTokens.put(key, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
             return null;
         }
     }
 
-    private Key accessKey() {
-        // Decode the Base64-encoded secret key and create a signing key
-        byte[] decodedKey = Base64.getDecoder().decode(jwtSecret);
-        return Keys.hmacShaKeyFor(decodedKey);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.example.finax.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * LoginAttemptTracker counts failed logins per email address. Once an address
+ * reaches maxFailures, further logins for it are rejected before any database
+ * lookup or BCrypt work, until lockout has passed since the last failure.
+ * Failures are counted for unknown addresses as well, so a rejection reveals
+ * nothing about whether an account exists.
+ */
+@Component
+public class LoginAttemptTracker {
+
+    @Value("${finax.auth.login.maxFailures:5}")
+    private int maxFailures;
+
+    @Value("${finax.auth.login.lockout:15m}")
+    private Duration lockout;
+
+    @Value("${finax.auth.login.trackerMaxSize:100000}")
+    private long maxSize;
+
+    private Cache<String, Integer> failures;
+
+    @PostConstruct
+    void init() {
+        failures = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(lockout)
+                .build();
+    }
+
+    /**
+     * @param email The email address of the login
+     * @return True if the address has too many recent failures
+     */
+    public boolean isBlocked(String email) {
+        Integer count = failures.getIfPresent(key(email));
+        return count != null && count >= maxFailures;
+    }
+
+    /**
+     * Records a failed login; every failure restarts the lockout period.
+     *
+     * @param email The email address of the login
+     */
+    public void recordFailure(String email) {
+        failures.asMap().merge(key(email), 1, Integer::sum);
+    }
+
+    /**
+     * Clears the failures of an address after a successful login.
+     *
+     * @param email The email address of the login
+     */
+    public void recordSuccess(String email) {
+        failures.invalidate(key(email));
+    }
+
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.finax.auth;
+
+import com.example.finax.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * PasswordHashingExecutor runs login and registration, whose cost is dominated
+ * by BCrypt, on a fixed pool of threads with a bounded queue. Request threads
+ * hand the work over and are released (the controller returns a future), so a
+ * burst of logins can only occupy this pool, never the Tomcat workers serving
+ * the todo endpoints. When the queue is full the request is rejected at once
+ * with 503 instead of waiting behind work that cannot finish in time.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${finax.auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${finax.auth.hashing.queueCapacity:100}")
+    private int queueCapacity;
+
+    private ExecutorService executor;
+    private Counter rejected;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "finax.auth.hashing");
+        rejected = Counter.builder("finax.auth.hashing.rejected")
+                .description("Logins and registrations rejected because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a hashing task.
+     *
+     * @param task The login or registration to run
+     * @return Future completed with the task's result or exception
+     * @throws ServiceUnavailableException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Too many concurrent sign-ins, please retry shortly");
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.finax.auth;
+
+import com.example.finax.repository.UserRepository;
+import com.example.finax.util.CacheLoadHelper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PrincipalCache keeps recently authenticated users in memory, keyed by the
+ * JWT subject (email), so that JwtFilter does not query the database on every
+ * authenticated request. Entries are AuthenticatedUser records, not entities.
+ */
+@Component
+public class PrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${finax.principalCache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${finax.principalCache.ttlSeconds:300}")
+    private long ttlSeconds;
+
+    private AsyncCache<String, AuthenticatedUser> principals;
+
+    @PostConstruct
+    void init() {
+        // Bounded, time-evicting cache; stats are recorded for hit/miss monitoring
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Resolves the user for the given token subject, loading it from the
+     * database on a cache miss. Unknown emails are not cached.
+     *
+     * @param email The token subject (user email)
+     * @return The user if it exists
+     */
+    public Optional<AuthenticatedUser> get(String email) {
+        // The lookup runs outside the cache's compute lock so it does not pin virtual threads
+        return Optional.ofNullable(CacheLoadHelper.getOrLoad(principals, email,
+                key -> userRepository.findByEmail(key).map(AuthenticatedUser::from).orElse(null)));
+    }
+
+    /**
+     * Removes a single user from the cache, e.g. after it was changed or deleted.
+     *
+     * @param email The email the user is cached under
+     */
+    public void invalidate(String email) {
+        if (email != null) {
+            principals.synchronous().invalidate(email);
+        }
+    }
+
+    /**
+     * Removes all cached users.
+     */
+    public void invalidateAll() {
+        principals.synchronous().invalidateAll();
+    }
+
+    /**
+     * @return Hit/miss/eviction statistics of the cache
+     */
+    public CacheStats stats() {
+        return principals.synchronous().stats();
+    }
+
+    /**
+     * @return Approximate number of cached users
+     */
+    public long size() {
+        return principals.synchronous().estimatedSize();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.finax.auth;
+
+import com.example.finax.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that evicts a user from the PrincipalCache whenever the
+ * user row is updated (including soft deletes) or removed.
+ */
+@Component
+public class PrincipalCacheInvalidator {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        String email = user.getEmail();
+        principalCache.invalidate(email);
+
+        // Evict again after commit so a concurrent request cannot re-cache the old state
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principalCache.invalidate(email);
+                }
+            });
+        }
+    }
+}
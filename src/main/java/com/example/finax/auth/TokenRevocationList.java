@@ -0,0 +1,148 @@
+package com.example.finax.auth;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TokenRevocationList holds the jti of every revoked access token that has
+ * not expired yet (revoked_access_tokens table). JwtFilter checks it with a
+ * hash lookup and never queries the database: each node keeps the whole set
+ * in memory and pulls rows revoked since its last sync every syncIntervalMs.
+ * Revocations made on this node apply at once, revocations made on other
+ * nodes within one sync interval.
+ * The set only holds tokens until their expiry, so its size is bounded by the
+ * number of revocations within one access token lifetime.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO revoked_access_tokens (jti, expires_at)
+        VALUES (:jti, :expiresAt)
+        ON CONFLICT (jti) DO NOTHING
+        """;
+
+    private static final String SYNC_SQL = """
+        SELECT jti, expires_at, revoked_at
+        FROM revoked_access_tokens
+        WHERE revoked_at >= :since AND expires_at > now()
+        """;
+
+    private static final String CLEANUP_SQL = "DELETE FROM revoked_access_tokens WHERE expires_at <= now()";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Rows are pulled again for this long after the newest one seen, so a revocation
+    // whose transaction committed after a later one was synced is not missed
+    @Value("${finax.auth.revocation.syncOverlap:30s}")
+    private Duration syncOverlap;
+
+    // jti -> expiry of the revoked access token
+    private final Map<UUID, Instant> revoked = new ConcurrentHashMap<>();
+
+    // Newest revoked_at synced so far (database clock); the first sync loads every unexpired row
+    private Instant lastRevokedAt = Instant.EPOCH;
+
+    @PostConstruct
+    void init() {
+        Gauge.builder("finax.auth.revocation.size", revoked, Map::size)
+                .description("Revoked access tokens held in memory until they expire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param jti The jti claim of a verified access token, null for tokens issued without one
+     * @return True if the token has been revoked
+     */
+    public boolean isRevoked(UUID jti) {
+        return jti != null && revoked.containsKey(jti);
+    }
+
+    /**
+     * Revokes an access token on all nodes. Inside a transaction the token is
+     * revoked locally once the transaction commits.
+     *
+     * @param jti       The jti claim of the access token
+     * @param expiresAt The expiry of the access token; it is forgotten afterwards
+     */
+    public void revoke(UUID jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_SQL, new MapSqlParameterSource()
+                .addValue("jti", jti)
+                .addValue("expiresAt", OffsetDateTime.ofInstant(expiresAt, ZoneOffset.UTC)));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    revoked.put(jti, expiresAt);
+                }
+            });
+        } else {
+            revoked.put(jti, expiresAt);
+        }
+    }
+
+    /**
+     * Pulls tokens revoked by any node since the last sync and forgets expired ones.
+     * When the database is unreachable the current set is kept.
+     */
+    @Scheduled(fixedDelayString = "${finax.auth.revocation.syncIntervalMs:5000}")
+    public synchronized void sync() {
+        Instant since = lastRevokedAt.minus(syncOverlap);
+        try {
+            jdbcTemplate.query(SYNC_SQL, Map.of("since", OffsetDateTime.ofInstant(since, ZoneOffset.UTC)), rs -> {
+                UUID jti = rs.getObject("jti", UUID.class);
+                Instant expiresAt = rs.getObject("expires_at", OffsetDateTime.class).toInstant();
+                Instant revokedAt = rs.getObject("revoked_at", OffsetDateTime.class).toInstant();
+                revoked.put(jti, expiresAt);
+                if (revokedAt.isAfter(lastRevokedAt)) {
+                    lastRevokedAt = revokedAt;
+                }
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not sync revoked access tokens, keeping {} known: {}", revoked.size(), e.getMessage());
+        }
+        Instant now = Instant.now();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+    }
+
+    /**
+     * Periodically removes revoked tokens that have expired anyway.
+     */
+    @Scheduled(fixedDelayString = "${finax.auth.revocation.cleanupIntervalMs:3600000}")
+    public void deleteExpired() {
+        int deleted = jdbcTemplate.update(CLEANUP_SQL, Map.of());
+        if (deleted > 0) {
+            log.debug("Removed {} expired revoked access tokens", deleted);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.finax.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * In-memory (per JVM) bucket store backed by Bucket4j. Limits are enforced per
+ * instance, so with N replicas a client gets up to N times the capacity.
+ */
+@Component
+@ConditionalOnProperty(name = "finax.rateLimit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    @Value("${finax.rateLimit.capacity:100}")
+    private long capacity;
+
+    @Value("${finax.rateLimit.refillPeriod:30m}")
+    private Duration refillPeriod;
+
+    private Cache<String, Bucket> buckets;
+
+    @PostConstruct
+    void init() {
+        // A bucket idle for a whole refill period is full again, so evicting it loses nothing
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(refillPeriod)
+                .build();
+    }
+
+    @Override
+    public long consumeUpTo(String key, long max) {
+        return buckets.get(key, k -> createNewBucket()).tryConsumeAsMuchAsPossible(max);
+    }
+
+    /**
+     * Creates a new rate limiting bucket using the Token Bucket algorithm
+     * with interval refill of the full capacity.
+     *
+     * @return A new Bucket4j bucket configured with the rate limiting policy
+     */
+    private Bucket createNewBucket() {
+        Bandwidth limit = Bandwidth.classic(capacity, Refill.intervally(capacity, refillPeriod));
+        return Bucket.builder().addLimit(limit).build();
+    }
+}
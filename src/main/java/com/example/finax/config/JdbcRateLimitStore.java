@@ -0,0 +1,83 @@
+package com.example.finax.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * PostgreSQL-backed bucket store shared by all replicas (rate_limit_buckets table).
+ * Each consume is a single INSERT ... ON CONFLICT DO UPDATE: the conflicting row is
+ * locked, the refill check and the decrement are computed from its current values
+ * and written back atomically, so concurrent replicas never over-grant and no
+ * read-modify-write retry loop is needed. The database clock is the only clock used.
+ */
+@Component
+@ConditionalOnProperty(name = "finax.rateLimit.store", havingValue = "jdbc")
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    private static final String CONSUME_SQL = """
+        INSERT INTO rate_limit_buckets AS b (bucket_key, tokens, granted, refill_at)
+        VALUES (:key, :capacity - LEAST(:max, :capacity), LEAST(:max, :capacity),
+                now() + :periodSeconds * INTERVAL '1 second')
+        ON CONFLICT (bucket_key) DO UPDATE
+        SET granted = LEAST(:max, CASE WHEN b.refill_at <= now() THEN :capacity ELSE b.tokens END),
+            tokens = CASE WHEN b.refill_at <= now() THEN :capacity ELSE b.tokens END
+                     - LEAST(:max, CASE WHEN b.refill_at <= now() THEN :capacity ELSE b.tokens END),
+            refill_at = CASE WHEN b.refill_at <= now()
+                             THEN now() + :periodSeconds * INTERVAL '1 second'
+                             ELSE b.refill_at END
+        RETURNING granted
+        """;
+
+    // A bucket past its refill time is equivalent to a missing (full) one
+    private static final String CLEANUP_SQL = "DELETE FROM rate_limit_buckets WHERE refill_at <= now()";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${finax.rateLimit.capacity:100}")
+    private long capacity;
+
+    @Value("${finax.rateLimit.refillPeriod:30m}")
+    private Duration refillPeriod;
+
+    @Override
+    public long consumeUpTo(String key, long max) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("max", max)
+                .addValue("capacity", capacity)
+                .addValue("periodSeconds", refillPeriod.toSeconds());
+        try {
+            Long granted = jdbcTemplate.queryForObject(CONSUME_SQL, params, Long.class);
+            return granted != null ? granted : 0;
+        } catch (DataAccessException e) {
+            // Fail open: an unavailable rate limit store must not take the API down with it
+            log.warn("Rate limit store unavailable, allowing request: {}", e.getMessage());
+            return max;
+        }
+    }
+
+    /**
+     * Periodically removes buckets whose refill time has passed.
+     */
+    @Scheduled(fixedDelayString = "${finax.rateLimit.jdbc.cleanupIntervalMs:600000}")
+    public void deleteRefilledBuckets() {
+        int deleted = jdbcTemplate.update(CLEANUP_SQL, Map.of());
+        if (deleted > 0) {
+            log.debug("Removed {} refilled rate limit buckets", deleted);
+        }
+    }
+}
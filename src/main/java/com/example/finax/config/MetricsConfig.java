@@ -0,0 +1,61 @@
+package com.example.finax.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * MetricsConfig enables @Observed on services and publishes latency percentiles
+ * and Prometheus histogram buckets for the timers we tune against:
+ * HTTP requests (tagged per endpoint by uri), service methods, repository
+ * invocations, Hikari connection acquisition and the auth/rate limit filters.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final Set<String> TIMER_PREFIXES = Set.of(
+            "http.server.requests",
+            "finax.",
+            "spring.data.repository.invocations",
+            "hikaricp.connections.acquire");
+
+    @Value("${finax.metrics.percentiles:0.5,0.95,0.99}")
+    private double[] percentiles;
+
+    @Value("${finax.metrics.maxExpectedLatency:10s}")
+    private Duration maxExpectedLatency;
+
+    /**
+     * Turns @Observed methods into observations (a timer, and a span when a tracer is present).
+     */
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    @Bean
+    public MeterFilter latencyDistributionMeterFilter() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER || TIMER_PREFIXES.stream().noneMatch(id.getName()::startsWith)) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(percentiles)
+                        .percentilesHistogram(true)
+                        .maximumExpectedValue((double) maxExpectedLatency.toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
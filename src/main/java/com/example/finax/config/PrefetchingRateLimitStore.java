@@ -0,0 +1,81 @@
+package com.example.finax.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PrefetchingRateLimitStore reserves tokens from a shared store in batches and
+ * hands them out locally, so the shared store is only contacted once per batch.
+ * Reserved tokens that are not used within maxHold are dropped (they count as
+ * consumed), so a key can lose at most batchSize - 1 tokens per replica and hold
+ * period. Empty buckets are remembered for maxHold as well.
+ */
+public class PrefetchingRateLimitStore implements RateLimitStore {
+
+    private final RateLimitStore delegate;
+
+    private final long batchSize;
+
+    private final long maxHoldNanos;
+
+    private final Cache<String, Allowance> allowances;
+
+    public PrefetchingRateLimitStore(RateLimitStore delegate, long batchSize, Duration maxHold) {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.maxHoldNanos = maxHold.toNanos();
+        this.allowances = Caffeine.newBuilder()
+                .expireAfterWrite(maxHold)
+                .build();
+    }
+
+    @Override
+    public long consumeUpTo(String key, long max) {
+        Allowance allowance = allowances.get(key, k -> new Allowance());
+        long taken = allowance.take(max);
+        if (taken == max) {
+            return taken;
+        }
+        // ReentrantLock rather than synchronized: the delegate may block on JDBC (virtual threads)
+        allowance.lock.lock();
+        try {
+            // Another thread may have refilled the allowance while this one waited
+            taken += allowance.take(max - taken);
+            if (taken < max && System.nanoTime() - allowance.deniedUntil >= 0) {
+                long needed = max - taken;
+                long granted = delegate.consumeUpTo(key, Math.max(batchSize, needed));
+                long used = Math.min(granted, needed);
+                allowance.remaining.addAndGet(granted - used);
+                taken += used;
+                if (granted == 0) {
+                    allowance.deniedUntil = System.nanoTime() + maxHoldNanos;
+                }
+                // Restart the hold period for the freshly reserved tokens
+                allowances.put(key, allowance);
+            }
+        } finally {
+            allowance.lock.unlock();
+        }
+        return taken;
+    }
+
+    private static final class Allowance {
+        private final AtomicLong remaining = new AtomicLong();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long deniedUntil = System.nanoTime();
+
+        long take(long max) {
+            while (true) {
+                long current = remaining.get();
+                long taken = Math.min(current, max);
+                if (taken <= 0 || remaining.compareAndSet(current, current - taken)) {
+                    return Math.max(taken, 0);
+                }
+            }
+        }
+    }
+}
@@ -1,46 +1,68 @@
 package com.example.finax.config;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
-import jakarta.servlet.Filter;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletRequest;
-import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
-@Component
-public class RateLimitFilter implements Filter {
+public class RateLimitFilter extends OncePerRequestFilter {
 
-    // Caffeine cache with a time-based eviction policy
-    private final Cache<String, Bucket> buckets = Caffeine.newBuilder()
-            .expireAfterAccess(30, TimeUnit.MINUTES) // Evict buckets 30 minutes after last access
-            .build();
+    @Autowired
+    private RateLimitStore rateLimitStore;
 
-    /**
-     * Creates a new rate limiting bucket using the Token Bucket algorithm.
-     * Current configuration: 100 requests per 30 minutes with interval refill.
-     *
-     * @return A new Bucket4j bucket configured with the rate limiting policy
-     */
-    private Bucket createNewBucket() {
-        Bandwidth limit = Bandwidth.classic(100, Refill.intervally(100, Duration.ofMinutes(30)));
-        return Bucket.builder().addLimit(limit).build();
+    @Autowired
+    private RateLimitKeyResolver keyResolver;
+
+    @Value("${finax.rateLimit.prefetch.batchSize:1}")
+    private long prefetchBatchSize;
+
+    @Value("${finax.rateLimit.prefetch.maxHold:5s}")
+    private Duration prefetchMaxHold;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private RateLimitStore store;
+
+    private Timer decisionTimer;
+
+    // Request counters by outcome and key type, registered once instead of on every request
+    private Counter allowedUserRequests;
+    private Counter allowedIpRequests;
+    private Counter rejectedUserRequests;
+    private Counter rejectedIpRequests;
+
+    @PostConstruct
+    void init() {
+        // Prefetching reserves tokens in batches so the (shared) store is not hit on every request
+        store = prefetchBatchSize > 1
+                ? new PrefetchingRateLimitStore(rateLimitStore, prefetchBatchSize, prefetchMaxHold)
+                : rateLimitStore;
+        decisionTimer = Timer.builder("finax.ratelimit.decision")
+                .description("Time to resolve the key and consume a token")
+                .tag("store", rateLimitStore.getClass().getSimpleName())
+                .register(meterRegistry);
+        allowedUserRequests = meterRegistry.counter("finax.ratelimit.requests", "outcome", "allowed", "key", "user");
+        allowedIpRequests = meterRegistry.counter("finax.ratelimit.requests", "outcome", "allowed", "key", "ip");
+        rejectedUserRequests = meterRegistry.counter("finax.ratelimit.requests", "outcome", "rejected", "key", "user");
+        rejectedIpRequests = meterRegistry.counter("finax.ratelimit.requests", "outcome", "rejected", "key", "ip");
     }
 
     /**
      * Main rate limiting filter logic applied to each HTTP request.
-     * Rate limiting is applied based on the request's IP address before
-     * authentication.
+     * Rate limiting is applied before authentication, per user for requests with
+     * a valid token and per client IP otherwise (see RateLimitKeyResolver).
      *
      * @param request  The incoming HTTP request
      * @param response The HTTP response to modify if rate limit exceeded
@@ -48,27 +70,29 @@ public class RateLimitFilter implements Filter {
      *                 exceeded
      */
     @Override
-    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
-            throws IOException, ServletException {
-
-        HttpServletRequest req = (HttpServletRequest) request;
-        HttpServletResponse res = (HttpServletResponse) response;
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
 
-        // Use IP address as the rate-limiting key
-        String clientIp = req.getRemoteAddr();
-
-        // Get or create a rate limiting bucket for this IP
-        Bucket bucket = buckets.get(clientIp, k -> createNewBucket());
+        long start = System.nanoTime();
+        String key = keyResolver.resolve(request);
+        // Try to consume 1 token from the bucket of this key
+        boolean allowed = store.consumeUpTo(key, 1) == 1;
+        decisionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        boolean user = key.startsWith("user:");
+        if (allowed) {
+            (user ? allowedUserRequests : allowedIpRequests).increment();
+        } else {
+            (user ? rejectedUserRequests : rejectedIpRequests).increment();
+        }
 
-        // Try to consume 1 token from the bucket (non-blocking)
-        if (bucket.tryConsume(1)) {
+        if (allowed) {
             // Token available - allow request to proceed
             chain.doFilter(request, response);
         } else {
             // Rate limit exceeded - return 429 Too Many Requests
-            res.setStatus(429);
-            res.setContentType("application/json");
-            res.getWriter().write("{\"success\":false,\"message\":\"Too many requests, try again later\"}");
+            response.setStatus(429);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"success\":false,\"message\":\"Too many requests, try again later\"}");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.example.finax.config;
+
+import com.example.finax.auth.AuthenticatedUser;
+import com.example.finax.auth.JwtClaims;
+import com.example.finax.auth.JwtUtil;
+import com.example.finax.auth.PrincipalCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RateLimitKeyResolver derives the rate limiting key of a request.
+ * Requests with a valid JWT are limited per user ("user:{id}"), everything else
+ * per client IP ("ip:{address}"). The client IP is taken from X-Forwarded-For only
+ * when the request comes through a trusted proxy (finax.rateLimit.trustedProxies,
+ * IPs or CIDR ranges); the header is walked from the right and the first address
+ * that is not a trusted proxy is the client, so clients cannot spoof it.
+ */
+@Component
+public class RateLimitKeyResolver {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Value("${finax.rateLimit.trustedProxies:}")
+    private String[] trustedProxies;
+
+    private List<IpAddressMatcher> trustedProxyMatchers;
+
+    @PostConstruct
+    void init() {
+        trustedProxyMatchers = Arrays.stream(trustedProxies)
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * @param request The incoming HTTP request
+     * @return The key whose bucket the request is charged to
+     */
+    public String resolve(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            // Verified tokens are cached by JwtUtil and users by PrincipalCache, so this stays in memory
+            JwtClaims claims = jwtUtil.parseToken(header.substring(7));
+            if (claims != null) {
+                Long userId = principalCache.get(claims.subject()).map(AuthenticatedUser::id).orElse(null);
+                if (userId != null) {
+                    return "user:" + userId;
+                }
+            }
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null || !isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!hop.isEmpty() && !isTrustedProxy(hop)) {
+                return hop;
+            }
+        }
+        // Every hop is a trusted proxy: the left-most one is the closest to the client
+        String first = hops.length > 0 ? hops[0].trim() : "";
+        return first.isEmpty() ? remoteAddr : first;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        for (IpAddressMatcher matcher : trustedProxyMatchers) {
+            try {
+                if (matcher.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Not an IP address (e.g. a garbage X-Forwarded-For entry)
+                return false;
+            }
+        }
+        return false;
+    }
+}
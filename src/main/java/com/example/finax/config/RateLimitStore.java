@@ -0,0 +1,18 @@
+package com.example.finax.config;
+
+/**
+ * RateLimitStore holds the token buckets used by RateLimitFilter.
+ * Every key has a bucket of finax.rateLimit.capacity tokens that is refilled
+ * completely once per finax.rateLimit.refillPeriod.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes as many tokens as available from the bucket of a key, at most max.
+     *
+     * @param key The rate limiting key (e.g. "user:42" or "ip:203.0.113.7")
+     * @param max Maximum number of tokens to take
+     * @return Number of tokens taken, 0 if the bucket is empty
+     */
+    long consumeUpTo(String key, long max);
+}
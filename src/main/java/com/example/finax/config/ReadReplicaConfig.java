@@ -0,0 +1,115 @@
+package com.example.finax.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * ReadReplicaConfig replaces the auto-configured primary DataSource with a
+ * LazyConnectionDataSourceProxy around a ReplicaRoutingDataSource, so
+ * @Transactional(readOnly = true) service methods read from the replica.
+ * Flyway, JPA and JdbcTemplate keep using the "dataSource" bean unchanged;
+ * only read-only transactions are ever routed to the replica.
+ * Without finax.datasource.replica.url this class is not loaded and all
+ * traffic goes to the primary.
+ */
+@Component
+@ConditionalOnProperty(name = "finax.datasource.replica.url")
+public class ReadReplicaConfig implements BeanPostProcessor, EnvironmentAware, BeanFactoryAware,
+        SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    // Seconds the replica is behind; 0 when it has replayed everything it received (an idle primary is not lag)
+    private static final String DEFAULT_LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+            END""";
+
+    private Environment environment;
+    private BeanFactory beanFactory;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!"dataSource".equals(beanName) || !(bean instanceof DataSource primary) || routing != null) {
+            return bean;
+        }
+        replica = createReplica();
+        routing = new ReplicaRoutingDataSource(primary, replica,
+                () -> beanFactory.getBean(RecentWriteTracker.class),
+                environment.getProperty("finax.datasource.replica.maxLag", Duration.class, Duration.ofSeconds(5)),
+                environment.getProperty("finax.datasource.replica.lagQuery", DEFAULT_LAG_QUERY),
+                environment.getProperty("finax.datasource.replica.lagCheckIntervalMs", Long.class, 1000L));
+        routing.afterPropertiesSet();
+        log.info("Read replica configured: {}", replica.getJdbcUrl());
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (routing == null) {
+            return;
+        }
+        beanFactory.getBeanProvider(MeterRegistry.class).ifAvailable(registry -> {
+            Gauge.builder("finax.datasource.replica.lag", routing,
+                            r -> r.getLagMillis() < 0 ? Double.NaN : r.getLagMillis() / 1000.0)
+                    .description("Replication lag measured by the last probe (NaN if the probe failed)")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("finax.datasource.replica.available", routing, r -> r.isReplicaAvailable() ? 1 : 0)
+                    .description("1 if read-only transactions are routed to the replica")
+                    .register(registry);
+        });
+    }
+
+    private HikariDataSource createReplica() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(environment.getRequiredProperty("finax.datasource.replica.url"));
+        dataSource.setUsername(environment.getProperty("finax.datasource.replica.username",
+                environment.getProperty("spring.datasource.username")));
+        dataSource.setPassword(environment.getProperty("finax.datasource.replica.password",
+                environment.getProperty("spring.datasource.password")));
+        dataSource.setMaximumPoolSize(environment.getProperty("finax.datasource.replica.maxPoolSize", Integer.class, 10));
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Override
+    public void destroy() {
+        if (routing != null) {
+            routing.close();
+        }
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
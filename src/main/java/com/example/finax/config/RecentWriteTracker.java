@@ -0,0 +1,56 @@
+package com.example.finax.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * RecentWriteTracker remembers which users committed a todo write within the
+ * last finax.datasource.replica.maxLag. Reads of those users are routed to the
+ * primary by ReplicaRoutingDataSource, so a user always reads their own writes
+ * even though the replica may still be replaying them.
+ * The state is per instance: writes made through another instance are only
+ * covered if the load balancer keeps a user on the same instance.
+ */
+@Component
+public class RecentWriteTracker {
+
+    @Value("${finax.datasource.replica.maxLag:5s}")
+    private Duration window;
+
+    @Value("${finax.datasource.replica.trackerMaxSize:100000}")
+    private long maxSize;
+
+    private Cache<Long, Boolean> recentWriters;
+
+    @PostConstruct
+    void init() {
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Records that a user has just committed a write.
+     *
+     * @param userId The ID of the user
+     */
+    public void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    /**
+     * Checks whether a user committed a write that the replica may not have applied yet.
+     *
+     * @param userId The ID of the user
+     * @return True if the user wrote within the replica lag window
+     */
+    public boolean wroteRecently(Long userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+}
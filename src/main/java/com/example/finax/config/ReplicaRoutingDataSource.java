@@ -0,0 +1,138 @@
+package com.example.finax.config;
+
+import com.example.finax.auth.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * ReplicaRoutingDataSource sends read-only transactions to the replica and
+ * everything else to the primary. A read-only transaction still goes to the
+ * primary when:
+ * - the current user committed a write within maxLag (read-your-writes)
+ * - the last lag probe measured more than maxLag, or could not reach the replica
+ * The routing key is taken when the connection is first used, so this data
+ * source must be wrapped in a LazyConnectionDataSourceProxy: by then the
+ * transaction's read-only flag has been set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final DataSource replica;
+    private final Supplier<RecentWriteTracker> recentWriteTracker;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final long lagCheckIntervalMs;
+
+    private ScheduledExecutorService lagProbe;
+    private volatile boolean replicaAvailable;
+    private volatile long lagMillis = -1;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Supplier<RecentWriteTracker> recentWriteTracker,
+                                    Duration maxLag, String lagQuery, long lagCheckIntervalMs) {
+        this.replica = replica;
+        this.recentWriteTracker = recentWriteTracker;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        this.lagCheckIntervalMs = lagCheckIntervalMs;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        // Probe once synchronously so reads are not routed to a replica that is down or far behind
+        checkLag();
+        lagProbe = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagProbe.scheduleWithFixedDelay(this::checkLag, lagCheckIntervalMs, lagCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !replicaAvailable) {
+            return PRIMARY;
+        }
+        Long userId = currentUserId();
+        if (userId != null && recentWriteTracker.get().wroteRecently(userId)) {
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+
+    /**
+     * @return True if read-only transactions are currently routed to the replica
+     */
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /**
+     * @return Replication lag measured by the last probe in milliseconds, -1 if the probe failed
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    void checkLag() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            // No row or NULL: not a streaming replica (e.g. a second standalone database), treat as caught up
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            lagMillis = Math.round(lagSeconds * 1000);
+            updateAvailability(lagMillis <= maxLag.toMillis(), "replication lag " + lagMillis + " ms");
+        } catch (Exception e) {
+            lagMillis = -1;
+            updateAvailability(false, "lag probe failed: " + e.getMessage());
+        }
+    }
+
+    private void updateAvailability(boolean available, String reason) {
+        if (available != replicaAvailable) {
+            if (available) {
+                log.info("Routing read-only transactions to the replica ({})", reason);
+            } else {
+                log.warn("Routing read-only transactions to the primary ({})", reason);
+            }
+        }
+        replicaAvailable = available;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        if (lagProbe != null) {
+            lagProbe.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.finax.config;
+
+import com.example.finax.dto.todo.TodoPageResponse;
+import com.example.finax.repository.TodoView;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * TodoPageResponseConverter writes todo list pages straight to the response
+ * stream with a streaming JSON generator: the SuccessResponse envelope, the
+ * page metadata and one object per TodoView row. Unlike the generic Jackson
+ * converter it needs no intermediate map, DTOs or reflective bean access.
+ * For a Page the output matches SuccessResponse.of(PageHelper.toMap(page), message);
+ * a Slice has hasNext instead of the totals.
+ * Registered as a bean, Spring Boot places it before the default converters.
+ */
+@Component
+public class TodoPageResponseConverter extends AbstractHttpMessageConverter<TodoPageResponse> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public TodoPageResponseConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TodoPageResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TodoPageResponse readInternal(Class<? extends TodoPageResponse> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("TodoPageResponse is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(TodoPageResponse response, HttpOutputMessage outputMessage) throws IOException {
+        Slice<TodoView> page = response.getPage();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            TimestampWriter timestamps = new TimestampWriter();
+
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeObjectFieldStart("data");
+            generator.writeArrayFieldStart("todos");
+            for (TodoView todo : page.getContent()) {
+                writeTodo(generator, todo, timestamps);
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("page", page.getNumber() + 1);
+            generator.writeNumberField("size", page.getSize());
+            if (page instanceof Page<TodoView> totals) {
+                generator.writeNumberField("totalElements", totals.getTotalElements());
+                generator.writeNumberField("totalPages", totals.getTotalPages());
+            } else {
+                generator.writeBooleanField("hasNext", page.hasNext());
+            }
+            generator.writeEndObject();
+            generator.writeStringField("message", response.getMessage());
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeTodo(JsonGenerator generator, TodoView todo, TimestampWriter timestamps) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", todo.id());
+        generator.writeStringField("title", todo.title());
+        generator.writeStringField("description", todo.description());
+        generator.writeBooleanField("completed", todo.completed());
+        generator.writeFieldName("version");
+        if (todo.version() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(todo.version());
+        }
+        generator.writeFieldName("createdAt");
+        timestamps.write(generator, todo.createdAt());
+        generator.writeFieldName("updatedAt");
+        timestamps.write(generator, todo.updatedAt());
+        generator.writeEndObject();
+    }
+
+    /**
+     * Formats timestamps like Jackson's LocalDateTimeSerializer (ISO_LOCAL_DATE_TIME)
+     * into buffers reused for the whole page instead of a String per value.
+     */
+    private static final class TimestampWriter {
+        private final StringBuilder text = new StringBuilder(32);
+        private char[] chars = new char[32];
+
+        void write(JsonGenerator generator, LocalDateTime value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+                return;
+            }
+            text.setLength(0);
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(value, text);
+            if (text.length() > chars.length) {
+                chars = new char[text.length()];
+            }
+            text.getChars(0, text.length(), chars, 0);
+            generator.writeString(chars, 0, text.length());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.finax.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * VirtualThreadDataSourceConfig sizes the Hikari pool for virtual-thread mode.
+ * With platform threads the Tomcat pool (200 threads) bounds how many requests
+ * can wait on JDBC at once; with virtual threads every request gets its own
+ * thread, so the connection pool becomes the only concurrency limit in front of
+ * PostgreSQL. The pool is therefore sized for the database (cores * 2 + spindles
+ * rule of thumb) rather than for the number of concurrent requests, and excess
+ * requests park cheaply while waiting for a connection.
+ * Explicit spring.datasource.hikari.* settings always take precedence.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadDataSourceConfig implements BeanPostProcessor, EnvironmentAware {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadDataSourceConfig.class);
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource dataSource)) {
+            return bean;
+        }
+        if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+            int poolSize = environment.getProperty("finax.virtualThreads.maxPoolSize", Integer.class,
+                    Runtime.getRuntime().availableProcessors() * 2 + 1);
+            dataSource.setMaximumPoolSize(poolSize);
+            log.info("Virtual threads enabled: Hikari maximum-pool-size set to {}", poolSize);
+        }
+        if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+            // Fail fast instead of letting an unbounded number of parked requests wait 30s for a connection
+            long timeoutMs = environment.getProperty("finax.virtualThreads.connectionTimeoutMs", Long.class, 5000L);
+            dataSource.setConnectionTimeout(timeoutMs);
+        }
+        return bean;
+    }
+}
@@ -1,16 +1,22 @@
 package com.example.finax.controller;
 
+import com.example.finax.auth.JwtClaims;
 import com.example.finax.dto.*;
 import com.example.finax.dto.auth.LoginRequest;
 import com.example.finax.dto.auth.LoginResponse;
+import com.example.finax.dto.auth.RefreshTokenRequest;
 import com.example.finax.dto.auth.RegisterRequest;
+import com.example.finax.dto.auth.TokenResponse;
 import com.example.finax.service.AuthServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.util.concurrent.CompletableFuture;
+
 
 @RestController
 @RequestMapping("/api/auth")
@@ -18,17 +24,35 @@ public class AuthController {
     @Autowired
     private AuthServiceImpl authService;
 
+    // Both endpoints return futures: the BCrypt work runs on the password hashing executor
+    // and the request thread is released meanwhile
     @PostMapping("/register")
-    public ResponseEntity<SuccessResponse<String>> register(@Valid @RequestBody RegisterRequest req) {
+    public CompletableFuture<ResponseEntity<SuccessResponse<String>>> register(@Valid @RequestBody RegisterRequest req) {
         // we can return token in case we want use to be logged in after registering
 //        String token = authService.register(req.getName(), req.getEmail(), req.getPassword());
-        MessageResponse messageResponse = authService.register(req);
-        return ResponseEntity.status(HttpStatus.CREATED).body(SuccessResponse.of(messageResponse.getMessage(), "Register successful"));
+        return authService.register(req).thenApply(messageResponse ->
+                ResponseEntity.status(HttpStatus.CREATED).body(SuccessResponse.of(messageResponse.getMessage(), "Register successful")));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<SuccessResponse<LoginResponse>> login(@Valid @RequestBody LoginRequest req) {
-        LoginResponse token = authService.login(req.getEmail(), req.getPassword());
-        return ResponseEntity.ok(SuccessResponse.of(token, "Login successful"));
+    public CompletableFuture<ResponseEntity<SuccessResponse<LoginResponse>>> login(@Valid @RequestBody LoginRequest req) {
+        return authService.login(req.getEmail(), req.getPassword()).thenApply(token ->
+                ResponseEntity.ok(SuccessResponse.of(token, "Login successful")));
+    }
+
+    // Rotates the refresh token: the response carries a new pair and the presented token is used up
+    @PostMapping("/refresh")
+    public ResponseEntity<SuccessResponse<TokenResponse>> refresh(@Valid @RequestBody RefreshTokenRequest req) {
+        return ResponseEntity.ok(SuccessResponse.of(authService.refresh(req.getRefreshToken()), "Token refreshed"));
+    }
+
+    // Revokes the refresh token family and, when the request carries one, the access token
+    @PostMapping("/logout")
+    public ResponseEntity<SuccessResponse<String>> logout(@Valid @RequestBody RefreshTokenRequest req,
+                                                          Authentication authentication) {
+        JwtClaims accessToken = authentication != null && authentication.getDetails() instanceof JwtClaims claims
+                ? claims : null;
+        return ResponseEntity.ok(SuccessResponse.of(
+                authService.logout(req.getRefreshToken(), accessToken).getMessage(), "Logout successful"));
     }
 }
\ No newline at end of file
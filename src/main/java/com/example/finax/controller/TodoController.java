@@ -1,13 +1,25 @@
 package com.example.finax.controller;
 
+import com.example.finax.auth.AuthenticatedUser;
 import com.example.finax.dto.SuccessResponse;
+import com.example.finax.dto.todo.TodoBatchCreateRequest;
+import com.example.finax.dto.todo.TodoBatchDeleteRequest;
+import com.example.finax.dto.todo.TodoBatchUpdateRequest;
 import com.example.finax.dto.todo.TodoRequestDto;
 import com.example.finax.dto.todo.TodoDto;
+import com.example.finax.dto.todo.TodoImportResult;
+import com.example.finax.dto.todo.TodoPageResponse;
 import com.example.finax.dto.todo.TodoStats;
 import com.example.finax.exception.BadRequestException;
+import com.example.finax.repository.TodoView;
+import com.example.finax.service.TodoChangeFeed;
+import com.example.finax.service.TodoExportService;
+import com.example.finax.service.TodoImportService;
 import com.example.finax.service.TodoService;
 import com.example.finax.util.CompletedFilterHelper;
 import com.example.finax.util.PageHelper;
+import com.example.finax.util.PaginationMode;
+import com.example.finax.util.TodoFileFormat;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -15,10 +27,21 @@ import jakarta.validation.constraints.NotBlank;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.*;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -30,27 +53,115 @@ public class TodoController {
     @Autowired
     private TodoService service;
 
+    @Autowired
+    private TodoExportService exportService;
+
+    @Autowired
+    private TodoImportService importService;
+
+    @Autowired
+    private TodoChangeFeed changeFeed;
+
     @GetMapping
-    public ResponseEntity<SuccessResponse<Map<String, Object>>> getAll(
+    public ResponseEntity<?> getAll(
             @RequestParam(required = false) String status,
-            @ParameterObject @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String cursor,
+            @ParameterObject @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest webRequest) {
+
+        String etag = currentEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        Boolean completed = CompletedFilterHelper.getCompletedFilter(status);
+        PaginationMode paginationMode = PaginationMode.resolve(mode, cursor);
+        if (paginationMode == PaginationMode.CURSOR) {
+            Window<TodoDto> window = service.getAllAfter(completed, cursor, pageable.getPageSize());
+            return ok(etag, SuccessResponse.of(PageHelper.toMap(window), "Todos fetched successfully"));
+        }
+        if (paginationMode == PaginationMode.SLICE) {
+            Slice<TodoView> todosSlice = service.getAllSlice(completed, pageable);
+            return ok(etag, new TodoPageResponse(todosSlice, "Todos fetched successfully"));
+        }
 
-        Page<TodoDto> todosPage = service.getAll(CompletedFilterHelper.getCompletedFilter(status), pageable);
-        return ResponseEntity.ok(SuccessResponse.of(PageHelper.toMap(todosPage), "Todos fetched successfully"));
+        Page<TodoView> todosPage = service.getAll(completed, pageable);
+        return ok(etag, new TodoPageResponse(todosPage, "Todos fetched successfully"));
     }
 
     @GetMapping("/active")
-    public ResponseEntity<SuccessResponse<Map<String, Object>>> getAllActive(
+    public ResponseEntity<?> getAllActive(
             @RequestParam(required = false) String status,
-            @ParameterObject @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String cursor,
+            @ParameterObject @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest webRequest) {
+
+        String etag = currentEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        Boolean completed = CompletedFilterHelper.getCompletedFilter(status);
+        PaginationMode paginationMode = PaginationMode.resolve(mode, cursor);
+        if (paginationMode == PaginationMode.CURSOR) {
+            Window<TodoDto> window = service.getAllActiveAfter(completed, cursor, pageable.getPageSize());
+            return ok(etag, SuccessResponse.of(PageHelper.toMap(window), "Todos fetched successfully"));
+        }
+        if (paginationMode == PaginationMode.SLICE) {
+            Slice<TodoView> todosSlice = service.getAllActiveSlice(completed, pageable);
+            return ok(etag, new TodoPageResponse(todosSlice, "Todos fetched successfully"));
+        }
+
+        Page<TodoView> todosPage = service.getAllActive(completed, pageable);
+        return ok(etag, new TodoPageResponse(todosPage, "Todos fetched successfully"));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
 
-        Page<TodoDto> todosPage = service.getAllActive(CompletedFilterHelper.getCompletedFilter(status), pageable);
-        return ResponseEntity.ok(SuccessResponse.of(PageHelper.toMap(todosPage), "Todos fetched successfully"));
+        TodoFileFormat fileFormat = TodoFileFormat.resolve(format);
+        Long userId = currentUser.id();
+        StreamingResponseBody body = out -> exportService.export(userId, fileFormat, includeDeleted, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(fileFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("todos." + fileFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId,
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        // Browsers resend Last-Event-ID on reconnect; the parameter covers the first connection
+        return changeFeed.subscribe(currentUser.id(), lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<SuccessResponse<TodoImportResult>> importTodos(
+            @RequestParam(required = false) String format,
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            InputStream body) throws IOException {
+
+        TodoImportResult result = importService.importTodos(currentUser.id(), TodoFileFormat.resolve(format), body);
+        return ResponseEntity.ok(SuccessResponse.of(result, "Todos imported"));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<SuccessResponse<TodoDto>> getOne(@PathVariable Long id) {
-        return ResponseEntity.ok(SuccessResponse.of(service.getById(id), "Todo fetched successfully"));
+    public ResponseEntity<SuccessResponse<TodoDto>> getOne(@PathVariable Long id, WebRequest webRequest) {
+        String etag = currentEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ok(etag, SuccessResponse.of(service.getById(id), "Todo fetched successfully"));
     }
 
     @PostMapping
@@ -60,6 +171,25 @@ public class TodoController {
                 .body(SuccessResponse.of(created, "Todo created successfully"));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<SuccessResponse<List<TodoDto>>> createBatch(@Valid @RequestBody TodoBatchCreateRequest request) {
+        List<TodoDto> created = service.createAll(request.getTodos());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(SuccessResponse.of(created, "Todos created successfully"));
+    }
+
+    @PatchMapping("/batch")
+    public ResponseEntity<SuccessResponse<List<TodoDto>>> updateBatch(@Valid @RequestBody TodoBatchUpdateRequest request) {
+        return ResponseEntity.ok(SuccessResponse.of(service.updateAll(request.getTodos()), "Todos updated successfully"));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<SuccessResponse<Void>> deleteBatch(@Valid @RequestBody TodoBatchDeleteRequest request,
+            @RequestParam(defaultValue = "false") boolean soft) {
+        service.deleteAll(request.getIds(), soft);
+        return ResponseEntity.ok(SuccessResponse.of(null, "Todos deleted successfully"));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<SuccessResponse<TodoDto>> update(@PathVariable Long id,
             @Valid @RequestBody TodoRequestDto updateTodoDto) {
@@ -79,18 +209,24 @@ public class TodoController {
     }
 
     @PatchMapping("/{id}/toggle")
-    public ResponseEntity<SuccessResponse<TodoDto>> toggle(@PathVariable Long id) {
-        return ResponseEntity.ok(SuccessResponse.of(service.toggle(id), "Todo toggled successfully"));
+    public ResponseEntity<SuccessResponse<TodoDto>> toggle(@PathVariable Long id,
+            @RequestParam(required = false) Long version) {
+        return ResponseEntity.ok(SuccessResponse.of(service.toggle(id, version), "Todo toggled successfully"));
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<SuccessResponse<TodoStats>> stats() {
-        return ResponseEntity.ok(SuccessResponse.of(service.stats(), "Todo statistics fetched successfully"));
+    public ResponseEntity<SuccessResponse<TodoStats>> stats(WebRequest webRequest) {
+        String etag = currentEtag();
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ok(etag, SuccessResponse.of(service.stats(), "Todo statistics fetched successfully"));
     }
 
     @GetMapping("/search")
-    public ResponseEntity<SuccessResponse<List<TodoDto>>> searchTodos(
-            @RequestParam @NotBlank(message = "Search keyword must not be blank") String keyword) {
+    public ResponseEntity<SuccessResponse<Map<String, Object>>> searchTodos(
+            @RequestParam @NotBlank(message = "Search keyword must not be blank") String keyword,
+            @ParameterObject @PageableDefault(size = 10) Pageable pageable) {
 
         // Sanitize the keyword to prevent SQL injection risks
         String sanitizedKeyword = keyword.trim();
@@ -99,7 +235,31 @@ public class TodoController {
             throw new BadRequestException("Search keyword must not be empty");
         }
 
-        List<TodoDto> todos = service.searchTodos(sanitizedKeyword);
-        return ResponseEntity.ok(SuccessResponse.of(todos, "Search results fetched successfully"));
+        Page<TodoDto> todos = service.searchTodos(sanitizedKeyword, pageable);
+        return ResponseEntity.ok(SuccessResponse.of(PageHelper.toMap(todos), "Search results fetched successfully"));
+    }
+
+    /**
+     * Builds a strong ETag from the current user's change version, which every todo
+     * write increments. It is read before the todos are queried, so a concurrent write
+     * can only make the ETag older than the body (forcing a refetch), never newer.
+     *
+     * @return The ETag, or null if the user's change version is not known yet
+     */
+    private String currentEtag() {
+        Long changeVersion = service.changeVersion();
+        return changeVersion == null ? null : "\"" + changeVersion + "\"";
+    }
+
+    private <T> ResponseEntity<T> ok(String etag, T body) {
+        // no-cache: clients may store the response but must revalidate it with If-None-Match;
+        // change versions are per user, so the stored response is only valid for the same token
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy("Authorization");
+        if (etag != null) {
+            builder.eTag(etag);
+        }
+        return builder.body(body);
     }
-}
\ No newline at end of file
+}
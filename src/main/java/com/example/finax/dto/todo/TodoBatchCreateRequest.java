@@ -0,0 +1,22 @@
+package com.example.finax.dto.todo;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchCreateRequest {
+    @NotEmpty(message = "At least one todo is required")
+    @Size(max = 500, message = "A batch cannot exceed 500 todos")
+    @Valid
+    private List<TodoRequestDto> todos;
+}
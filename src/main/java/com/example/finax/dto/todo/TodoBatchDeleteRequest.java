@@ -0,0 +1,21 @@
+package com.example.finax.dto.todo;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchDeleteRequest {
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 500, message = "A batch cannot exceed 500 ids")
+    private List<@NotNull(message = "Id is required") Long> ids;
+}
@@ -0,0 +1,29 @@
+package com.example.finax.dto.todo;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoBatchUpdateItem {
+    @NotNull(message = "Id is required")
+    private Long id;
+
+    // Null fields are left unchanged
+    @Size(min = 1, max = 255, message = "Title must be between 1 and 255 characters")
+    private String title;
+
+    @Size(max = 1000, message = "Description cannot exceed 1000 characters")
+    private String description;
+
+    private Boolean completed;
+
+    // Optional; when set the item is rejected if the todo is no longer at this version
+    private Long version;
+}
@@ -0,0 +1,22 @@
+package com.example.finax.dto.todo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoChangeEvent {
+    private long id;
+    // created, updated, toggled or deleted
+    private String op;
+    private long todoId;
+    // Current state of the todo, null once it is deleted
+    private TodoDto todo;
+    private Instant occurredAt;
+}
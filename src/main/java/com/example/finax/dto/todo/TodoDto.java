@@ -16,6 +16,7 @@ public class TodoDto {
     private String title;
     private String description;
     private boolean completed;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
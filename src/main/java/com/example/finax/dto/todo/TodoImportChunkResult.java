@@ -0,0 +1,27 @@
+package com.example.finax.dto.todo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportChunkResult {
+    public enum Status { IMPORTED, PARTIAL, FAILED }
+
+    private int chunk;
+    private long firstRow;
+    private long lastRow;
+    private int imported;
+    private int rejected;
+    private Status status;
+    // Set when the chunk was rolled back as a whole
+    private String error;
+    // Invalid rows of the chunk (capped, see finax.import.maxErrorsPerChunk)
+    private List<TodoImportRowError> errors;
+}
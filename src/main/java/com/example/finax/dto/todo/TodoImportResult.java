@@ -0,0 +1,21 @@
+package com.example.finax.dto.todo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportResult {
+    private long rows;
+    private long imported;
+    private long rejected;
+    private List<TodoImportChunkResult> chunks;
+    // Set when the stream could not be read to the end, e.g. a row longer than finax.import.maxRowLength
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.example.finax.dto.todo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoImportRowError {
+    // 1-based data row (NDJSON line / CSV record after the header)
+    private long row;
+    private List<String> messages;
+}
@@ -0,0 +1,19 @@
+package com.example.finax.dto.todo;
+
+import com.example.finax.repository.TodoView;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Response of the offset-paginated todo lists. It is written directly to the
+ * response stream by TodoPageResponseConverter, in the same JSON shape as
+ * SuccessResponse wrapping PageHelper.toMap(page). A Page carries
+ * totalElements/totalPages, a plain Slice (slice mode) only hasNext.
+ */
+@Data
+@AllArgsConstructor
+public class TodoPageResponse {
+    private Slice<TodoView> page;
+    private String message;
+}
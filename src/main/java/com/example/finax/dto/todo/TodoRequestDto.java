@@ -20,4 +20,7 @@ public class TodoRequestDto {
     private String description;
 
     private boolean completed;
+
+    // Optional; when set the update only succeeds if the todo is still at this version
+    private Long version;
 }
\ No newline at end of file
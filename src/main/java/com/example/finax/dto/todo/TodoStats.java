@@ -11,4 +11,5 @@ public class TodoStats {
     private long total;
     private long completed;
     private long pending;
+    private long deleted;
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.example.finax.exception;
 
 import com.example.finax.dto.ErrorResponse;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 
 import java.util.Map;
@@ -68,6 +70,17 @@ public class GlobalExceptionHandler {
                         .body(ErrorResponse.of("Too Many Requests", ex.getMessage()));
         }
 
+        /**
+         * Handles ServiceUnavailableException (e.g. the password hashing queue is full)
+         * and returns a 503 Service Unavailable response asking the client to retry.
+         */
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public ResponseEntity<ErrorResponse> handleServiceUnavailable(ServiceUnavailableException ex) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(ErrorResponse.of("Service Unavailable", ex.getMessage()));
+        }
+
         /**
          * Handles BadRequestException and returns a 400 Bad Request response.
          */
@@ -86,6 +99,25 @@ public class GlobalExceptionHandler {
                         .body(ErrorResponse.of("User already exists", ex.getMessage()));
         }
 
+        /**
+         * Handles ConflictException and returns a 409 Conflict response.
+         */
+        @ExceptionHandler(ConflictException.class)
+        public ResponseEntity<ErrorResponse> handleConflict(ConflictException ex) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ErrorResponse.of("Conflict", ex.getMessage()));
+        }
+
+        /**
+         * Handles optimistic locking failures (a concurrent write bumped the version
+         * of an entity) and returns a 409 Conflict response.
+         */
+        @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+        public ResponseEntity<ErrorResponse> handleOptimisticLocking(ObjectOptimisticLockingFailureException ex) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ErrorResponse.of("Conflict", "The resource was modified concurrently, reload and retry"));
+        }
+
         /**
          * Handles generic RuntimeException and returns a 500 Internal Server Error
          * response.
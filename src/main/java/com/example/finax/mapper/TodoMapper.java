@@ -7,6 +7,8 @@ import org.springframework.stereotype.Component;
 import com.example.finax.dto.todo.TodoDto;
 import com.example.finax.dto.todo.TodoRequestDto;
 import com.example.finax.model.Todo;
+import com.example.finax.repository.TodoView;
+import com.example.finax.repository.TodoWriteResult;
 
 @Component
 public class TodoMapper {
@@ -20,11 +22,44 @@ public class TodoMapper {
                 .title(todo.getTitle())
                 .description(todo.getDescription())
                 .completed(todo.isCompleted())
+                .version(todo.getVersion())
                 .createdAt(todo.getCreatedAt())
                 .updatedAt(todo.getUpdatedAt())
                 .build();
     }
 
+    public TodoDto mapToDto(TodoWriteResult result) {
+        if (result == null) {
+            return null;
+        }
+
+        return TodoDto.builder()
+                .id(result.getId())
+                .title(result.getTitle())
+                .description(result.getDescription())
+                .completed(result.isCompleted())
+                .version(result.getVersion())
+                .createdAt(result.getCreatedAt())
+                .updatedAt(result.getUpdatedAt())
+                .build();
+    }
+
+    public TodoDto mapToDto(TodoView view) {
+        if (view == null) {
+            return null;
+        }
+
+        return TodoDto.builder()
+                .id(view.id())
+                .title(view.title())
+                .description(view.description())
+                .completed(view.completed())
+                .version(view.version())
+                .createdAt(view.createdAt())
+                .updatedAt(view.updatedAt())
+                .build();
+    }
+
     public Todo mapToEntity(TodoRequestDto todoDto) {
         if (todoDto == null) {
             return null;
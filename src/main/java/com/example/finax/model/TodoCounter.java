@@ -0,0 +1,39 @@
+package com.example.finax.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Incrementally maintained todo counters of a single user.
+ * total and completed exclude soft-deleted todos, deleted counts them.
+ */
+@Entity
+@Table(name = "todo_counters")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TodoCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long completed;
+
+    @Column(nullable = false)
+    private long deleted;
+
+    // Incremented by every todo write of the user; used as the ETag of todo reads
+    @Column(name = "change_version", nullable = false)
+    private long changeVersion;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
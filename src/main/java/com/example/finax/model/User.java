@@ -1,5 +1,6 @@
 package com.example.finax.model;
 
+import com.example.finax.auth.PrincipalCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.Builder.Default;
@@ -9,6 +10,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(PrincipalCacheInvalidator.class)
 @Table(name = "users", uniqueConstraints = @UniqueConstraint(columnNames = "email"))
 @Data
 @Builder
@@ -0,0 +1,89 @@
+package com.example.finax.repository;
+
+import com.example.finax.model.TodoCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface TodoCounterRepository extends JpaRepository<TodoCounter, Long> {
+
+    /**
+     * Adds deltas to the counters of a user and bumps the user's change version.
+     *
+     * @return Number of updated rows, 0 if the user has no counters row yet
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE todo_counters
+        SET total = total + :total,
+            completed = completed + :completed,
+            deleted = deleted + :deleted,
+            change_version = change_version + 1,
+            updated_at = LOCALTIMESTAMP
+        WHERE user_id = :userId
+    """, nativeQuery = true)
+    int addDelta(Long userId, long total, long completed, long deleted);
+
+    /**
+     * Inserts an empty counters row for every user with fromUserId &lt; id &lt;= toUserId
+     * that has none yet, so that lockRange() covers all users of the range.
+     *
+     * @return Number of inserted rows
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO todo_counters (user_id, total, completed, deleted, updated_at)
+        SELECT u.id, 0, 0, 0, LOCALTIMESTAMP
+        FROM users u
+        WHERE u.id > :fromUserId AND u.id <= :toUserId
+        ORDER BY u.id
+        ON CONFLICT (user_id) DO NOTHING
+    """, nativeQuery = true)
+    int insertMissing(long fromUserId, long toUserId);
+
+    /**
+     * Locks the counters rows of all users with fromUserId &lt; id &lt;= toUserId until
+     * the end of the transaction, in user ID order. Writes that already changed a
+     * row are waited for, later addDelta() calls wait for the transaction.
+     *
+     * @return IDs of the locked users
+     */
+    @Query(value = """
+        SELECT user_id FROM todo_counters
+        WHERE user_id > :fromUserId AND user_id <= :toUserId
+        ORDER BY user_id
+        FOR UPDATE
+    """, nativeQuery = true)
+    List<Long> lockRange(long fromUserId, long toUserId);
+
+    /**
+     * Recomputes the counters of all users with fromUserId &lt; id &lt;= toUserId from the
+     * todos table and overwrites rows that drifted. Must run after lockRange() in the
+     * same transaction: the counts are taken by this statement, after the lock, so
+     * they include every write that changed a locked row before.
+     *
+     * @return Number of repaired rows
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE todo_counters c
+        SET total = s.total,
+            completed = s.completed,
+            deleted = s.deleted,
+            change_version = c.change_version + 1,
+            updated_at = LOCALTIMESTAMP
+        FROM (SELECT tc.user_id,
+                     count(t.id) FILTER (WHERE NOT t.deleted) AS total,
+                     count(t.id) FILTER (WHERE NOT t.deleted AND t.completed) AS completed,
+                     count(t.id) FILTER (WHERE t.deleted) AS deleted
+              FROM todo_counters tc
+              LEFT JOIN todos t ON t.user_id = tc.user_id
+              WHERE tc.user_id > :fromUserId AND tc.user_id <= :toUserId
+              GROUP BY tc.user_id) s
+        WHERE c.user_id = s.user_id
+          AND (c.total, c.completed, c.deleted) IS DISTINCT FROM (s.total, s.completed, s.deleted)
+    """, nativeQuery = true)
+    int recountRange(long fromUserId, long toUserId);
+}
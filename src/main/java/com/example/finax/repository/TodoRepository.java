@@ -3,40 +3,129 @@ package com.example.finax.repository;
 import com.example.finax.model.Todo;
 import com.example.finax.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TodoRepository extends JpaRepository<Todo, Long> {
-    Page<Todo> findByUserId(Long userId, Pageable pageable);
-    Page<Todo> findByUserIdAndCompleted(Long userId, boolean completed, Pageable pageable);
+    // List pages select TodoView records instead of entities. They are slices (size + 1 rows, no COUNT);
+    // totals come from the todo counters, see TodoServiceImpl
+    Slice<TodoView> findByUserId(Long userId, Pageable pageable);
+    Slice<TodoView> findByUserIdAndCompleted(Long userId, boolean completed, Pageable pageable);
 
     Optional<Todo> findByUserIdAndId(Long userId, Long id);
+    boolean existsByUserIdAndId(Long userId, Long id);
+    List<Todo> findAllByUserIdAndIdIn(Long userId, Collection<Long> ids);
     /**
-     * Searches todos by keyword in title or description fields.
-     * Implements case-insensitive partial matching with soft delete filtering.
+     * Full-text searches todos by title and description using the GIN-indexed search_vector column.
+     * Results are ranked by relevance (title matches weigh more), then newest first.
      * 
      * @param userId The ID of the user whose todos to search
-     * @param keyword The search keyword to match against title/description
-     * @return List of todos matching the search criteria
+     * @param query A tsquery built by SearchQueryHelper (e.g. "buy:* & groc:*")
+     * @param pageable Unsorted page request; ordering is fixed by rank
+     * @return Page of todos matching the search criteria
      */
-    @Query("""
-        SELECT t
-        FROM Todo t
-        WHERE t.user.id = :userId
+    @Query(value = """
+        SELECT t.id, t.title, t.description, t.completed, t.user_id, t.created_at, t.updated_at, t.deleted, t.version
+        FROM todos t
+        WHERE t.user_id = :userId
           AND t.deleted = false
-          AND (
-                LOWER(t.title) LIKE LOWER(CONCAT('%', :keyword, '%'))
-                OR LOWER(t.description) LIKE LOWER(CONCAT('%', :keyword, '%'))
-              )
-    """)
-    List<Todo> searchTodos(Long userId, String keyword);
-    Page<Todo> findAllByUserIdAndDeletedFalse(Long userId, Pageable pageable);
-
-    Page<Todo> findByUserIdAndCompletedAndDeletedFalse(Long userId, boolean completed, Pageable pageable);
+          AND t.search_vector @@ to_tsquery('simple', :query)
+        ORDER BY ts_rank(t.search_vector, to_tsquery('simple', :query)) DESC, t.created_at DESC, t.id DESC
+    """,
+    countQuery = """
+        SELECT count(*)
+        FROM todos t
+        WHERE t.user_id = :userId
+          AND t.deleted = false
+          AND t.search_vector @@ to_tsquery('simple', :query)
+    """,
+    nativeQuery = true)
+    Page<Todo> searchTodos(Long userId, String query, Pageable pageable);
+    Slice<TodoView> findAllByUserIdAndDeletedFalse(Long userId, Pageable pageable);
+
+    Slice<TodoView> findByUserIdAndCompletedAndDeletedFalse(Long userId, boolean completed, Pageable pageable);
     long countByUserIdAndCompleted(Long userId, boolean completed);
     long countByUserId(long userId);
-}
\ No newline at end of file
+    long countByUserIdAndDeletedFalse(Long userId);
+    long countByUserIdAndCompletedTrueAndDeletedFalse(Long userId);
+    long countByUserIdAndDeletedTrue(Long userId);
+
+    // Read fresh for every call: a DTO projection is neither cached nor kept in the persistence context
+    Optional<TodoView> findViewByUserIdAndId(Long userId, Long id);
+
+    /**
+     * Flips the completed flag of a todo in a single statement.
+     *
+     * @param version Expected version, or null to toggle unconditionally
+     * @return The new state, empty if the todo does not exist or is at another version
+     */
+    @Query(value = """
+        UPDATE todos
+        SET completed = NOT completed,
+            version = version + 1,
+            updated_at = LOCALTIMESTAMP
+        WHERE id = :id
+          AND user_id = :userId
+          AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT))
+        RETURNING id, title, description, completed, deleted, version,
+                  created_at AS "createdAt", updated_at AS "updatedAt", NOT completed AS "wasCompleted"
+    """, nativeQuery = true)
+    Optional<TodoWriteResult> toggle(Long userId, Long id, Long version);
+
+    /**
+     * Marks a todo as deleted in a single statement.
+     *
+     * @return The new state, empty if the todo does not exist or was already deleted
+     */
+    @Query(value = """
+        UPDATE todos
+        SET deleted = true,
+            version = version + 1,
+            updated_at = LOCALTIMESTAMP
+        WHERE id = :id
+          AND user_id = :userId
+          AND deleted = false
+        RETURNING id, title, description, completed, deleted, version,
+                  created_at AS "createdAt", updated_at AS "updatedAt", completed AS "wasCompleted"
+    """, nativeQuery = true)
+    Optional<TodoWriteResult> softDelete(Long userId, Long id);
+
+    /**
+     * Updates a todo in a single statement. The row is locked by the inner SELECT ... FOR UPDATE
+     * so the returned previous completed flag is the one this write replaced.
+     *
+     * @param title       New title, or null to keep the current one
+     * @param description New description, or null to keep the current one
+     * @param version     Expected version, or null to update unconditionally
+     * @return The new state, empty if the todo does not exist or is at another version
+     */
+    @Query(value = """
+        UPDATE todos t
+        SET title = COALESCE(CAST(:title AS VARCHAR), t.title),
+            description = COALESCE(CAST(:description AS TEXT), t.description),
+            completed = :completed,
+            version = t.version + 1,
+            updated_at = LOCALTIMESTAMP
+        FROM (SELECT id, completed FROM todos WHERE id = :id AND user_id = :userId FOR UPDATE) prev
+        WHERE t.id = prev.id
+          AND (CAST(:version AS BIGINT) IS NULL OR t.version = CAST(:version AS BIGINT))
+        RETURNING t.id, t.title, t.description, t.completed, t.deleted, t.version,
+                  t.created_at AS "createdAt", t.updated_at AS "updatedAt", prev.completed AS "wasCompleted"
+    """, nativeQuery = true)
+    Optional<TodoWriteResult> update(Long userId, Long id, String title, String description, boolean completed, Long version);
+
+    // Keyset (cursor) pagination, ordered by created_at DESC, id DESC without COUNT/OFFSET
+    Window<Todo> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, ScrollPosition position, Limit limit);
+    Window<Todo> findByUserIdAndCompletedOrderByCreatedAtDescIdDesc(Long userId, boolean completed, ScrollPosition position, Limit limit);
+    Window<Todo> findByUserIdAndDeletedFalseOrderByCreatedAtDescIdDesc(Long userId, ScrollPosition position, Limit limit);
+    Window<Todo> findByUserIdAndCompletedAndDeletedFalseOrderByCreatedAtDescIdDesc(Long userId, boolean completed, ScrollPosition position, Limit limit);
+}
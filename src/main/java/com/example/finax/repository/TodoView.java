@@ -0,0 +1,18 @@
+package com.example.finax.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only todo row for list pages. Spring Data selects exactly these columns
+ * into the record (a JPQL constructor expression), so list queries neither
+ * hydrate Todo entities nor put them in the persistence context.
+ */
+public record TodoView(
+        Long id,
+        String title,
+        String description,
+        boolean completed,
+        Long version,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
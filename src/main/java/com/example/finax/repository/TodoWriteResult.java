@@ -0,0 +1,20 @@
+package com.example.finax.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row returned by the single-statement todo writes (UPDATE ... RETURNING).
+ * Besides the new state it carries the completed flag from before the write,
+ * so callers can derive counter deltas without a prior SELECT.
+ */
+public interface TodoWriteResult {
+    Long getId();
+    String getTitle();
+    String getDescription();
+    boolean isCompleted();
+    boolean isDeleted();
+    Long getVersion();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    boolean isWasCompleted();
+}
@@ -3,9 +3,17 @@ package com.example.finax.repository;
 
 import com.example.finax.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Read-write so it always runs on the primary: registration, login and JWT principal
+    // lookups must see an account immediately, not once the read replica caught up
+    @Transactional
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT COALESCE(MAX(u.id), 0) FROM User u")
+    long findMaxId();
 }
\ No newline at end of file
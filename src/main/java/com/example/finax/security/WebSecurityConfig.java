@@ -5,7 +5,13 @@ import com.example.finax.auth.JwtFilter;
 import com.example.finax.auth.JwtUtil;
 import com.example.finax.config.RateLimitFilter;
 import com.example.finax.repository.UserRepository;
+import com.example.finax.util.BCryptStrengthHelper;
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -19,9 +25,15 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 public class WebSecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(WebSecurityConfig.class);
+
     @Autowired
     private  JwtAuthenticationEntryPoint unauthorizedHandler;
 
+    // Actuator port reachable only by the scraper; -1 when actuator shares the API port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     public WebSecurityConfig(JwtAuthenticationEntryPoint unauthorizedHandler) {
         this.unauthorizedHandler = unauthorizedHandler;
     }
@@ -43,10 +55,16 @@ public class WebSecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (export stream, SSE change feed) belong to an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Allow public access to authentication endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         // Allow public access to API documentation
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+                        // Health checks are public
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // Prometheus scraping only on the internal management port; on the API port it needs a token
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
                         // Require authentication for all other endpoints
                         .anyRequest().authenticated()
                 )
@@ -69,8 +87,28 @@ public class WebSecurityConfig {
         return new RateLimitFilter();
     }
 
+    /**
+     * Keeps Spring Boot from also registering the rate limiting filter as a servlet
+     * filter, so it only runs inside the security chain and charges one token per request.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * BCrypt encoder for new hashes. The cost is finax.auth.bcrypt.strength when set,
+     * otherwise calibrated at startup to the highest cost that hashes within
+     * finax.auth.bcrypt.targetMs. Existing hashes keep their own cost and are
+     * re-hashed at the current cost on the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${finax.auth.bcrypt.strength:0}") int strength,
+                                           @Value("${finax.auth.bcrypt.targetMs:100}") long targetMs) {
+        int cost = strength > 0 ? strength : BCryptStrengthHelper.calibrate(targetMs);
+        log.info("BCrypt cost {} ({})", cost, strength > 0 ? "configured" : "calibrated to " + targetMs + " ms");
+        return new BCryptPasswordEncoder(cost);
     }
 }
\ No newline at end of file
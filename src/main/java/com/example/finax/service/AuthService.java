@@ -1,11 +1,17 @@
 package com.example.finax.service;
 
+import com.example.finax.auth.JwtClaims;
 import com.example.finax.dto.auth.LoginResponse;
 import com.example.finax.dto.MessageResponse;
 import com.example.finax.dto.auth.RegisterRequest;
+import com.example.finax.dto.auth.TokenResponse;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthService {
 
-    MessageResponse register(RegisterRequest registerRequest);
-    LoginResponse login(String email, String password);
+    CompletableFuture<MessageResponse> register(RegisterRequest registerRequest);
+    CompletableFuture<LoginResponse> login(String email, String password);
+    TokenResponse refresh(String refreshToken);
+    MessageResponse logout(String refreshToken, JwtClaims accessToken);
 }
@@ -1,18 +1,26 @@
 package com.example.finax.service;
 
-import com.example.finax.auth.JwtUtil;
+import com.example.finax.auth.JwtClaims;
+import com.example.finax.auth.LoginAttemptTracker;
+import com.example.finax.auth.PasswordHashingExecutor;
 import com.example.finax.dto.auth.LoginResponse;
 import com.example.finax.dto.auth.RegisterRequest;
+import com.example.finax.dto.auth.TokenResponse;
 import com.example.finax.exception.InvalidCredentialsException;
+import com.example.finax.exception.RateLimitExceededException;
 import com.example.finax.exception.UserAlreadyExistsException;
 import com.example.finax.dto.MessageResponse;
 import com.example.finax.mapper.UserMapper;
 import com.example.finax.model.User;
 import com.example.finax.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class AuthServiceImpl {
 
@@ -21,21 +29,39 @@ public class AuthServiceImpl {
     @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
-    private JwtUtil jwtUtil;
+    private RefreshTokenService refreshTokenService;
     @Autowired
     private UserMapper userMapper;
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @Autowired
+    private LoginAttemptTracker loginAttemptTracker;
+
+    // Compared against when the email is unknown, so both cases cost one BCrypt check
+    private String dummyPasswordHash;
+
+    @PostConstruct
+    void init() {
+        dummyPasswordHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
 
     /**
      * Registers a new user account with email uniqueness validation.
      * Encrypts password using BCrypt before storing in database.
+     * Runs on the password hashing executor.
      * 
      * @param name     User's display name
      * @param email    User's email address (must be unique)
      * @param password Plain text password (will be encrypted)
-     * @return Success message response
+     * @return Future of the success message response
      * @throws RuntimeException if email already exists in system
+     * @throws com.example.finax.exception.ServiceUnavailableException if the hashing queue is full
      */
-    public MessageResponse register(RegisterRequest registerRequest) {
+    public CompletableFuture<MessageResponse> register(RegisterRequest registerRequest) {
+        return passwordHashingExecutor.submit(() -> doRegister(registerRequest));
+    }
+
+    private MessageResponse doRegister(RegisterRequest registerRequest) {
         // Check for duplicate email addresses (unique constraint)
         if (userRepository.findByEmail(registerRequest.getEmail()).isPresent()) {
             throw new UserAlreadyExistsException("Registration failed - please try again");
@@ -51,26 +77,77 @@ public class AuthServiceImpl {
     /**
      * Authenticates user login credentials and generates JWT token.
      * Validates email existence and password match using BCrypt.
+     * Addresses with too many recent failures are rejected before any hashing,
+     * both when the login is queued and again when it runs on the password
+     * hashing executor, so a burst queued before the lockout is not hashed.
      * 
      * @param email    User's email address
      * @param password Plain text password to verify
-     * @return LoginResponse containing JWT token and user details
+     * @return Future of the LoginResponse containing JWT token, refresh token and user details
      * @throws RuntimeException if credentials are invalid
+     * @throws RateLimitExceededException if the address has too many recent failed logins
+     * @throws com.example.finax.exception.ServiceUnavailableException if the hashing queue is full
      */
-    public LoginResponse login(String email, String password) {
-        // Find user by email (throws exception if not found)
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid credentials"));
+    public CompletableFuture<LoginResponse> login(String email, String password) {
+        if (loginAttemptTracker.isBlocked(email)) {
+            throw new RateLimitExceededException("Too many failed login attempts, please retry later");
+        }
+        return passwordHashingExecutor.submit(() -> doLogin(email, password));
+    }
+
+    private LoginResponse doLogin(String email, String password) {
+        // Failures of logins queued ahead of this one may have locked the address meanwhile
+        if (loginAttemptTracker.isBlocked(email)) {
+            throw new RateLimitExceededException("Too many failed login attempts, please retry later");
+        }
+        User user = userRepository.findByEmail(email).orElse(null);
 
-        // Verify password using BCrypt (compares plain text with hashed password)
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        // Verify password using BCrypt (compares plain text with hashed password);
+        // an unknown email is checked against a dummy hash so it takes as long as a wrong password
+        boolean matches = passwordEncoder.matches(password, user != null ? user.getPassword() : dummyPasswordHash);
+        if (user == null || !matches) {
+            loginAttemptTracker.recordFailure(email);
             throw new InvalidCredentialsException("Invalid credentials");
         }
+        loginAttemptTracker.recordSuccess(email);
+
+        // Re-hash passwords stored with a lower cost than the current one
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(password));
+            userRepository.save(user);
+        }
 
-        // Generate JWT token and return with user data (excluding sensitive fields)
+        // Generate JWT and refresh token and return them with user data (excluding sensitive fields)
+        TokenResponse tokens = refreshTokenService.issue(user);
         return LoginResponse.builder()
-                .token(jwtUtil.generateToken(email))
+                .token(tokens.getToken())
+                .refreshToken(tokens.getRefreshToken())
                 .user(userMapper.toUserDto(user)) // DTO excludes password
                 .build();
     }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token,
+     * without a password check. The presented refresh token is used up.
+     *
+     * @param refreshToken The refresh token from login or the previous refresh
+     * @return The new token pair
+     * @throws com.example.finax.exception.UnauthorizedException if the token is invalid, expired or was already used
+     */
+    public TokenResponse refresh(String refreshToken) {
+        return refreshTokenService.rotate(refreshToken);
+    }
+
+    /**
+     * Logs out: revokes the refresh token with all tokens rotated from the same
+     * login, and the access token the request was authenticated with.
+     *
+     * @param refreshToken The refresh token to revoke
+     * @param accessToken  Claims of the request's access token, null if the request had none
+     * @return The success message response
+     */
+    public MessageResponse logout(String refreshToken, JwtClaims accessToken) {
+        refreshTokenService.revoke(refreshToken, accessToken);
+        return MessageResponse.builder().message("Logged out").build();
+    }
 }
\ No newline at end of file
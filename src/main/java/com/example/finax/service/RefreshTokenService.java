@@ -0,0 +1,178 @@
+package com.example.finax.service;
+
+import com.example.finax.auth.JwtClaims;
+import com.example.finax.auth.JwtUtil;
+import com.example.finax.auth.TokenRevocationList;
+import com.example.finax.dto.auth.TokenResponse;
+import com.example.finax.exception.UnauthorizedException;
+import com.example.finax.model.RefreshToken;
+import com.example.finax.model.User;
+import com.example.finax.repository.RefreshTokenRepository;
+import com.example.finax.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * RefreshTokenService issues and rotates refresh tokens, so clients get a new
+ * access token without sending their password (and paying for BCrypt) again.
+ * Refresh tokens are opaque random strings; only their SHA-256 is stored.
+ * Every exchange marks the presented token as used and issues a new pair in
+ * the same family. Presenting a used token again means it was copied, so the
+ * whole family is revoked, together with the access tokens issued from it.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${finax.jwtRefreshTokenValidity:2592000000}")
+    private long refreshTokenValidityMs;
+
+    /**
+     * Issues an access token and a refresh token starting a new family, e.g. at login.
+     *
+     * @param user The authenticated user
+     * @return The new token pair
+     */
+    public TokenResponse issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token.
+     * The presented token can not be used again.
+     *
+     * @param refreshToken The refresh token from the client
+     * @return The new token pair
+     * @throws UnauthorizedException if the token is unknown, expired or revoked, or was already used
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public TokenResponse rotate(String refreshToken) {
+        Instant now = Instant.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        if (current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        if (current.getUsedAt() != null) {
+            // Reuse of a rotated token: either the client or an attacker holds a copy, revoke both.
+            // noRollbackFor keeps the revocation when the exception leaves this transaction
+            log.warn("Refresh token reuse for user {}, revoking token family {}", current.getUserId(), current.getFamilyId());
+            meterRegistry.counter("finax.auth.refresh.reuse").increment();
+            revokeFamily(current.getFamilyId(), now);
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+
+        User user = userRepository.findById(current.getUserId())
+                .filter(u -> !u.isDeleted())
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        current.setUsedAt(now);
+        return issue(user, current.getFamilyId());
+    }
+
+    /**
+     * Revokes the family of a refresh token and an access token, e.g. at logout.
+     *
+     * @param refreshToken The refresh token from the client, may be null
+     * @param accessToken  The claims of the access token of the request, may be null
+     */
+    @Transactional
+    public void revoke(String refreshToken, JwtClaims accessToken) {
+        if (accessToken != null) {
+            tokenRevocationList.revoke(accessToken.id(), accessToken.expiresAt());
+        }
+        if (refreshToken != null) {
+            refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                    .ifPresent(token -> revokeFamily(token.getFamilyId(), Instant.now()));
+        }
+    }
+
+    /**
+     * Periodically removes expired refresh tokens.
+     */
+    @Scheduled(fixedDelayString = "${finax.auth.refresh.cleanupIntervalMs:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Removed {} expired refresh tokens", deleted);
+        }
+    }
+
+    private TokenResponse issue(User user, UUID familyId) {
+        UUID accessJti = UUID.randomUUID();
+        Instant accessExpiresAt = jwtUtil.accessTokenExpiry();
+        String refreshToken = newToken();
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .familyId(familyId)
+                .userId(user.getId())
+                .accessJti(accessJti)
+                .accessExpiresAt(accessExpiresAt)
+                .expiresAt(Instant.now().plusMillis(refreshTokenValidityMs))
+                .build());
+
+        return TokenResponse.builder()
+                .token(jwtUtil.generateToken(user.getEmail(), accessJti, accessExpiresAt))
+                .refreshToken(refreshToken)
+                .build();
+    }
+
+    private void revokeFamily(UUID familyId, Instant now) {
+        refreshTokenRepository.revokeFamily(familyId, now);
+        // Access tokens issued from the family stop working on every node within one revocation sync
+        for (RefreshToken token : refreshTokenRepository.findAllByFamilyIdAndAccessExpiresAtAfter(familyId, now)) {
+            tokenRevocationList.revoke(token.getAccessJti(), token.getAccessExpiresAt());
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.finax.service;
+
+import com.example.finax.dto.todo.TodoChangeEvent;
+import com.example.finax.dto.todo.TodoDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * TodoChangeFeed fans the todo_change_events of a user out to the SSE
+ * subscribers connected to this node. TodoChangeListener only forwards
+ * "user X has new events" signals; events are always read from the table in
+ * id order, so live delivery and Last-Event-ID replay share one code path and
+ * a missed notification is repaired by the next one (or the reconnect catch-up).
+ * Deliveries for the same user are coalesced and never run concurrently.
+ */
+@Service
+public class TodoChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoChangeFeed.class);
+
+    private static final String EVENTS_SQL = """
+        SELECT e.id, e.op, e.todo_id, e.created_at,
+               t.title, t.description, t.completed, t.deleted, t.version,
+               t.created_at AS todo_created_at, t.updated_at AS todo_updated_at
+        FROM todo_change_events e
+        LEFT JOIN todos t ON t.id = e.todo_id
+        WHERE e.user_id = ? AND e.id > ?
+        ORDER BY e.id
+        LIMIT ?
+        """;
+
+    private static final String LAST_EVENT_SQL =
+            "SELECT COALESCE(max(id), 0) FROM todo_change_events WHERE user_id = ?";
+
+    private static final String OLDEST_EVENT_SQL = "SELECT min(id) FROM todo_change_events WHERE user_id = ?";
+
+    private static final String CLEANUP_SQL = """
+        DELETE FROM todo_change_events
+        WHERE id IN (SELECT id FROM todo_change_events WHERE created_at < ? ORDER BY id LIMIT ?)
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${finax.changes.emitterTimeout:30m}")
+    private Duration emitterTimeout;
+
+    @Value("${finax.changes.batchSize:500}")
+    private int batchSize;
+
+    @Value("${finax.changes.retention:24h}")
+    private Duration retention;
+
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+
+    // Deliveries block on JDBC and socket writes; virtual threads keep that cheap per user
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Opens an SSE stream of the changes of a user.
+     *
+     * @param userId      The ID of the subscribing user
+     * @param lastEventId The last event the client has seen (Last-Event-ID), or null to receive only new events
+     * @return The emitter the events are sent to
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeout.toMillis());
+        boolean reset = lastEventId != null && eventsExpiredAfter(userId, lastEventId);
+        long start = lastEventId == null || reset
+                ? jdbcTemplate.queryForObject(LAST_EVENT_SQL, Long.class, userId)
+                : lastEventId;
+
+        Subscriber subscriber = new Subscriber(emitter, start);
+        emitter.onCompletion(() -> unsubscribe(userId, subscriber));
+        emitter.onTimeout(() -> unsubscribe(userId, subscriber));
+        emitter.onError(e -> unsubscribe(userId, subscriber));
+        if (reset) {
+            // Events after lastEventId were already purged: the client has to reload its todos
+            send(userId, subscriber, SseEmitter.event().id(Long.toString(start)).name("reset").data("{}"));
+        }
+
+        // Added inside compute so a concurrent unsubscribe cannot drop the channel underneath it
+        channels.compute(userId, (id, channel) -> {
+            UserChannel target = channel != null ? channel : new UserChannel();
+            target.subscribers.add(subscriber);
+            return target;
+        });
+        // Replays the events after lastEventId, and anything written while subscribing
+        deliverAsync(userId);
+        return emitter;
+    }
+
+    /**
+     * Signals that a user has new events; a no-op if the user has no subscribers on this node.
+     *
+     * @param userId The ID of the user whose todos changed
+     */
+    public void onNotification(Long userId) {
+        deliverAsync(userId);
+    }
+
+    /**
+     * Re-reads the events of every subscribed user, e.g. after the listener reconnected
+     * and notifications may have been lost.
+     */
+    public void catchUpAll() {
+        channels.keySet().forEach(this::deliverAsync);
+    }
+
+    /**
+     * Sends a comment to every subscriber so idle connections are not closed by proxies
+     * and dead ones are detected.
+     */
+    @Scheduled(fixedRateString = "${finax.changes.heartbeatMs:25000}")
+    public void heartbeat() {
+        channels.forEach((userId, channel) -> channel.subscribers
+                .forEach(subscriber -> send(userId, subscriber, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /**
+     * Deletes events older than the retention period in bounded batches.
+     */
+    @Scheduled(fixedDelayString = "${finax.changes.cleanupIntervalMs:3600000}")
+    public void deleteExpiredEvents() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(CLEANUP_SQL, cutoff, 10_000);
+        } while (deleted == 10_000);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deliveryExecutor.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * Event ids are global, so the check is against the user's own oldest event: lastEventId
+     * is one of the user's events, and once it is purged later ones may be purged too.
+     */
+    private boolean eventsExpiredAfter(Long userId, long lastEventId) {
+        Long oldest = jdbcTemplate.queryForObject(OLDEST_EVENT_SQL, Long.class, userId);
+        return oldest == null ? lastEventId > 0 : lastEventId < oldest;
+    }
+
+    private void deliverAsync(Long userId) {
+        UserChannel channel = channels.get(userId);
+        if (channel == null) {
+            return;
+        }
+        channel.dirty.set(true);
+        if (!channel.running.compareAndSet(false, true)) {
+            // The running delivery sees the dirty flag and reads again
+            return;
+        }
+        deliveryExecutor.execute(() -> {
+            try {
+                while (channel.dirty.getAndSet(false)) {
+                    deliver(userId, channel);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Delivering todo changes of user {} failed: {}", userId, e.getMessage());
+            } finally {
+                channel.running.set(false);
+                if (channel.dirty.get()) {
+                    deliverAsync(userId);
+                }
+            }
+        });
+    }
+
+    private void deliver(Long userId, UserChannel channel) {
+        long from = channel.subscribers.stream().mapToLong(subscriber -> subscriber.lastEventId).min().orElse(Long.MAX_VALUE);
+        while (from != Long.MAX_VALUE) {
+            List<TodoChangeEvent> events = jdbcTemplate.query(EVENTS_SQL, this::mapEvent, userId, from, batchSize);
+            for (Subscriber subscriber : channel.subscribers) {
+                for (TodoChangeEvent event : events) {
+                    if (event.getId() > subscriber.lastEventId) {
+                        if (!send(userId, subscriber, SseEmitter.event()
+                                .id(Long.toString(event.getId()))
+                                .name(event.getOp())
+                                .data(event, MediaType.APPLICATION_JSON))) {
+                            break;
+                        }
+                        subscriber.lastEventId = event.getId();
+                    }
+                }
+            }
+            if (events.size() < batchSize) {
+                return;
+            }
+            from = events.get(events.size() - 1).getId();
+        }
+    }
+
+    private boolean send(Long userId, Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected (the container completes the emitter) or emitter already completed
+            unsubscribe(userId, subscriber);
+            return false;
+        }
+    }
+
+    private void unsubscribe(Long userId, Subscriber subscriber) {
+        channels.computeIfPresent(userId, (id, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    private TodoChangeEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        String op = rs.getString("op");
+        TodoDto todo = null;
+        if (!"deleted".equals(op) && rs.getObject("title") != null) {
+            todo = TodoDto.builder()
+                    .id(rs.getLong("todo_id"))
+                    .title(rs.getString("title"))
+                    .description(rs.getString("description"))
+                    .completed(rs.getBoolean("completed"))
+                    .version(rs.getLong("version"))
+                    .createdAt(rs.getObject("todo_created_at", LocalDateTime.class))
+                    .updatedAt(rs.getObject("todo_updated_at", LocalDateTime.class))
+                    .build();
+        }
+        return TodoChangeEvent.builder()
+                .id(rs.getLong("id"))
+                .op(op)
+                .todoId(rs.getLong("todo_id"))
+                .todo(todo)
+                .occurredAt(rs.getTimestamp("created_at").toInstant())
+                .build();
+    }
+
+    private static final class UserChannel {
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicBoolean running = new AtomicBoolean();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        // Only written by the (single) delivery of the user's channel
+        private volatile long lastEventId;
+
+        private Subscriber(SseEmitter emitter, long lastEventId) {
+            this.emitter = emitter;
+            this.lastEventId = lastEventId;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.finax.service;
+
+import com.example.finax.model.Todo;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * TodoChangeListener holds the single LISTEN todo_changes connection of this node
+ * and forwards every notification ("userId:lastEventId:todoIds") to TodoChangeFeed.
+ * It also evicts the changed todos from this node's second-level cache and the
+ * user's cached counters and change version (the list and stats ETag), so a
+ * write on any node invalidates the cached state on all of them.
+ * The connection is opened directly through the driver rather than borrowed from
+ * Hikari, so it never occupies a pool slot, and is re-established with backoff
+ * when it breaks, followed by a catch-up of all subscribed users.
+ */
+@Component
+@ConditionalOnProperty(name = "finax.changes.enabled", havingValue = "true", matchIfMissing = true)
+public class TodoChangeListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoChangeListener.class);
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    @Autowired
+    private TodoChangeFeed todoChangeFeed;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TodoCounterService todoCounterService;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username:}")
+    private String username;
+
+    @Value("${spring.datasource.password:}")
+    private String password;
+
+    @Value("${finax.changes.pollTimeoutMs:10000}")
+    private int pollTimeoutMs;
+
+    private volatile boolean running;
+
+    private volatile Connection connection;
+
+    private Thread thread;
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().daemon().name("todo-change-listener").start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        closeConnection();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long backoffMs = 1_000;
+        while (running) {
+            try (Connection listenConnection = DriverManager.getConnection(url, username, password)) {
+                connection = listenConnection;
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN todo_changes");
+                }
+                PGConnection pgConnection = listenConnection.unwrap(PGConnection.class);
+                log.info("Listening for todo changes");
+                backoffMs = 1_000;
+                // Notifications sent while disconnected are lost; the events table is not.
+                // Which todos changed meanwhile is unknown, so none of the cached ones is trusted
+                entityManagerFactory.getCache().evict(Todo.class);
+                todoCounterService.evictAll();
+                todoChangeFeed.catchUpAll();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Todo change listener connection failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split(":", 3);
+        try {
+            Long userId = Long.valueOf(parts[0]);
+            if (parts.length == 3) {
+                evictTodos(parts[2]);
+            }
+            todoCounterService.evict(userId);
+            todoChangeFeed.onNotification(userId);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed todo change notification: {}", payload);
+        }
+    }
+
+    private void evictTodos(String todoIds) {
+        Cache cache = entityManagerFactory.getCache();
+        if ("*".equals(todoIds)) {
+            // Too many ids for one notification
+            cache.evict(Todo.class);
+            return;
+        }
+        for (String todoId : todoIds.split(",")) {
+            cache.evict(Todo.class, Long.valueOf(todoId));
+        }
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        if (current != null) {
+            try {
+                // Unblocks getNotifications
+                current.close();
+            } catch (SQLException e) {
+                log.debug("Closing todo change listener connection failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.finax.service;
+
+import com.example.finax.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that recomputes todo counters from the todos table in user ID
+ * ranges (one short transaction per range) to repair any drift, e.g. from rows
+ * written outside TodoServiceImpl or from concurrent first writes.
+ */
+@Component
+public class TodoCounterReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoCounterReconciler.class);
+
+    @Autowired
+    private TodoCounterService todoCounterService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${finax.todoCounters.reconcileBatchSize:1000}")
+    private long batchSize;
+
+    @Scheduled(initialDelayString = "${finax.todoCounters.reconcileInitialDelayMs:60000}",
+            fixedDelayString = "${finax.todoCounters.reconcileIntervalMs:900000}")
+    public void reconcile() {
+        long maxUserId = userRepository.findMaxId();
+        int repaired = 0;
+        for (long from = 0; from < maxUserId; from += batchSize) {
+            repaired += todoCounterService.reconcile(from, Math.min(from + batchSize, maxUserId));
+        }
+        if (repaired > 0) {
+            log.info("Reconciled todo counters, repaired {} rows", repaired);
+        }
+    }
+}
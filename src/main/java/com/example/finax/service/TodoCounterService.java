@@ -0,0 +1,176 @@
+package com.example.finax.service;
+
+import com.example.finax.config.RecentWriteTracker;
+import com.example.finax.dto.todo.TodoStats;
+import com.example.finax.repository.TodoCounterRepository;
+import com.example.finax.repository.TodoRepository;
+import com.example.finax.util.CacheLoadHelper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TodoCounterService maintains the per-user todo_counters row inside the
+ * transaction of each todo write and serves statistics and the user's change
+ * version from an in-memory cache in front of it.
+ */
+@Service
+public class TodoCounterService {
+
+    @Autowired
+    private TodoCounterRepository todoCounterRepository;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private RecentWriteTracker recentWriteTracker;
+
+    @Value("${finax.todoCounters.cacheMaxSize:10000}")
+    private long cacheMaxSize;
+
+    @Value("${finax.todoCounters.cacheTtlSeconds:30}")
+    private long cacheTtlSeconds;
+
+    // Stats and change version are cached together so a stats ETag always matches its body
+    private AsyncCache<Long, Counters> statsCache;
+
+    @PostConstruct
+    void init() {
+        statsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS)
+                .buildAsync();
+    }
+
+    /**
+     * Returns the todo statistics of a user, from cache when possible.
+     *
+     * @param userId The ID of the user
+     * @return Statistics of the user's todos (soft-deleted todos are reported separately)
+     */
+    @Transactional(readOnly = true)
+    public TodoStats stats(Long userId) {
+        // Loaded outside the cache's compute lock so the queries do not pin virtual threads
+        return CacheLoadHelper.getOrLoad(statsCache, userId, this::load).stats();
+    }
+
+    /**
+     * Returns the change version of a user, which is incremented by every todo write.
+     *
+     * @param userId The ID of the user
+     * @return The change version, or null if the user has no counters row yet
+     */
+    @Transactional(readOnly = true)
+    public Long changeVersion(Long userId) {
+        return CacheLoadHelper.getOrLoad(statsCache, userId, this::load).changeVersion();
+    }
+
+    /**
+     * Applies counter deltas for a user within the caller's transaction and bumps
+     * the user's change version, so it must be called by every todo write, also
+     * when all deltas are zero (e.g. a title change).
+     * Once the transaction commits the cached statistics of the user are evicted
+     * and the user's reads are pinned to the primary until the replica caught up.
+     *
+     * @param userId    The ID of the user whose todos changed
+     * @param total     Change of the number of (not soft-deleted) todos
+     * @param completed Change of the number of completed (not soft-deleted) todos
+     * @param deleted   Change of the number of soft-deleted todos
+     */
+    @Transactional
+    public void applyDelta(Long userId, long total, long completed, long deleted) {
+        if (todoCounterRepository.addDelta(userId, total, completed, deleted) == 0) {
+            // No counters row yet (e.g. seeded data): initialise it from the todos table
+            recount(userId - 1, userId);
+        }
+        afterCommit(userId);
+    }
+
+    /**
+     * Recomputes the counters of a range of users from the todos table.
+     *
+     * @param fromUserId Exclusive lower bound of user IDs
+     * @param toUserId   Inclusive upper bound of user IDs
+     * @return Number of counters rows that were created with todos or had drifted
+     */
+    @Transactional
+    public int reconcile(long fromUserId, long toUserId) {
+        int repaired = recount(fromUserId, toUserId);
+        if (repaired > 0) {
+            statsCache.synchronous().invalidateAll();
+        }
+        return repaired;
+    }
+
+    /**
+     * Recounts a range of users in the caller's transaction. The counters rows are
+     * created and locked first and counted by a later statement, which sees every
+     * write that held a row lock before, while writes waiting for the locks apply
+     * their deltas on top of the recount.
+     */
+    private int recount(long fromUserId, long toUserId) {
+        todoCounterRepository.insertMissing(fromUserId, toUserId);
+        todoCounterRepository.lockRange(fromUserId, toUserId);
+        return todoCounterRepository.recountRange(fromUserId, toUserId);
+    }
+
+    /**
+     * Drops the cached statistics and change version of a user whose todos were
+     * written, possibly on another node (see TodoChangeListener).
+     *
+     * @param userId The ID of the user
+     */
+    public void evict(Long userId) {
+        statsCache.synchronous().invalidate(userId);
+    }
+
+    /**
+     * Drops the cached statistics and change versions of all users.
+     */
+    public void evictAll() {
+        statsCache.synchronous().invalidateAll();
+    }
+
+    private Counters load(Long userId) {
+        return todoCounterRepository.findById(userId)
+                .map(counter -> new Counters(new TodoStats(counter.getTotal(), counter.getCompleted(),
+                        counter.getTotal() - counter.getCompleted(), counter.getDeleted()), counter.getChangeVersion()))
+                // No counters row yet: count directly, the row is created on the next write or reconciliation
+                .orElseGet(() -> {
+                    long total = todoRepository.countByUserIdAndDeletedFalse(userId);
+                    long completed = todoRepository.countByUserIdAndCompletedTrueAndDeletedFalse(userId);
+                    long deleted = todoRepository.countByUserIdAndDeletedTrue(userId);
+                    return new Counters(new TodoStats(total, completed, total - completed, deleted), null);
+                });
+    }
+
+    private record Counters(TodoStats stats, Long changeVersion) {
+    }
+
+    private void afterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed(userId);
+                }
+            });
+        } else {
+            committed(userId);
+        }
+    }
+
+    private void committed(Long userId) {
+        recentWriteTracker.recordWrite(userId);
+        statsCache.synchronous().invalidate(userId);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.finax.service;
+
+import com.example.finax.util.CsvHelper;
+import com.example.finax.util.TodoFileFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * TodoExportService streams all todos of a user straight from a JDBC cursor to
+ * an output stream. Rows are written as they are fetched (fetchSize at a time),
+ * without entities, DTOs or an in-memory list, so heap use does not depend on
+ * the size of the account.
+ */
+@Service
+public class TodoExportService {
+
+    private static final String EXPORT_SQL = """
+        SELECT id, title, description, completed, version, created_at, updated_at
+        FROM todos
+        WHERE user_id = ?
+          AND (? OR deleted = false)
+        ORDER BY created_at DESC, id DESC
+        """;
+
+    private static final String CSV_HEADER = "id,title,description,completed,version,createdAt,updatedAt\n";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${finax.export.fetchSize:500}")
+    private int fetchSize;
+
+    /**
+     * Writes the todos of a user to the given stream, newest first.
+     * Runs in a read-only transaction: PostgreSQL only honours the fetch size
+     * (server-side cursor) when autocommit is off.
+     *
+     * @param userId         The ID of the user whose todos are exported
+     * @param format         NDJSON (one JSON object per line) or CSV with a header row
+     * @param includeDeleted Whether soft-deleted todos are exported as well
+     * @param out            The response stream; it is flushed but not closed
+     */
+    @Transactional(readOnly = true)
+    public void export(Long userId, TodoFileFormat format, boolean includeDeleted, OutputStream out) throws IOException {
+        if (format == TodoFileFormat.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write(CSV_HEADER);
+            query(userId, includeDeleted, rs -> writeCsvRow(rs, writer));
+            writer.flush();
+        } else {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+                // One object per line, keep the response stream open for the container
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                query(userId, includeDeleted, rs -> writeJsonRow(rs, generator));
+                generator.flush();
+            }
+        }
+    }
+
+    private void query(Long userId, boolean includeDeleted, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, userId);
+            statement.setBoolean(2, includeDeleted);
+            return statement;
+        }, handler);
+    }
+
+    private void writeJsonRow(ResultSet rs, JsonGenerator generator) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("title", rs.getString("title"));
+            generator.writeStringField("description", rs.getString("description"));
+            generator.writeBooleanField("completed", rs.getBoolean("completed"));
+            generator.writeNumberField("version", rs.getLong("version"));
+            generator.writeStringField("createdAt", formatTimestamp(rs, "created_at"));
+            generator.writeStringField("updatedAt", formatTimestamp(rs, "updated_at"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            // Client went away: abort the query instead of reading the rest of the cursor
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeCsvRow(ResultSet rs, Writer writer) throws SQLException {
+        try {
+            writer.write(Long.toString(rs.getLong("id")));
+            writer.write(',');
+            writer.write(CsvHelper.escape(rs.getString("title")));
+            writer.write(',');
+            writer.write(CsvHelper.escape(rs.getString("description")));
+            writer.write(',');
+            writer.write(Boolean.toString(rs.getBoolean("completed")));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong("version")));
+            writer.write(',');
+            writer.write(formatTimestamp(rs, "created_at"));
+            writer.write(',');
+            writer.write(formatTimestamp(rs, "updated_at"));
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String formatTimestamp(ResultSet rs, String column) throws SQLException {
+        LocalDateTime value = rs.getObject(column, LocalDateTime.class);
+        return value == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value);
+    }
+}
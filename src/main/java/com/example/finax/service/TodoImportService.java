@@ -0,0 +1,343 @@
+package com.example.finax.service;
+
+import com.example.finax.dto.todo.TodoImportChunkResult;
+import com.example.finax.dto.todo.TodoImportResult;
+import com.example.finax.dto.todo.TodoImportRowError;
+import com.example.finax.dto.todo.TodoRequestDto;
+import com.example.finax.exception.BadRequestException;
+import com.example.finax.util.CsvHelper;
+import com.example.finax.util.TodoIdBlocks;
+import com.example.finax.util.TodoFileFormat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TodoImportService loads todos from an NDJSON or CSV stream with PostgreSQL COPY.
+ * The input is read incrementally: rows are validated against the TodoRequestDto
+ * rules and collected into chunks of finax.import.chunkSize rows, and each chunk
+ * is copied in its own transaction together with its counter delta. Only one
+ * chunk is held in memory, and a failing chunk is rolled back and reported
+ * without affecting the chunks before or after it.
+ */
+@Service
+public class TodoImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoImportService.class);
+
+    // ids are taken from todos_id_seq in blocks (see TodoIdBlocks); search_vector is generated
+    private static final String COPY_SQL = """
+        COPY todos (id, title, description, completed, user_id, created_at, updated_at, deleted, version)
+        FROM STDIN WITH (FORMAT csv)
+        """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TodoCounterService todoCounterService;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${finax.import.chunkSize:2000}")
+    private int chunkSize;
+
+    @Value("${finax.import.maxRowLength:16384}")
+    private int maxRowLength;
+
+    @Value("${finax.import.maxErrorsPerChunk:100}")
+    private int maxErrorsPerChunk;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Lenient so that an export (id, version, timestamps, ...) can be imported as is
+    private final ObjectReader rowReader = new ObjectMapper()
+            .readerFor(TodoRequestDto.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports todos for a user from a stream.
+     * NDJSON: one JSON object per line with title, description and completed; blank lines are skipped.
+     * CSV: a header row naming the columns (title is required, description and completed are optional,
+     * other columns are ignored) followed by one record per todo.
+     * A row longer than finax.import.maxRowLength stops the import after that row; the result
+     * then reports the rows up to it and the error.
+     *
+     * @param userId The ID of the user the todos are imported for
+     * @param format The format of the stream
+     * @param in     The request body, read until the end or until a row cannot be read
+     * @return Totals and the result of every chunk
+     */
+    public TodoImportResult importTodos(Long userId, TodoFileFormat format, InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        RowSource source = format == TodoFileFormat.CSV ? csvSource(reader) : ndjsonSource(reader);
+
+        List<TodoImportChunkResult> chunks = new ArrayList<>();
+        Chunk chunk = new Chunk(1, 1, userId);
+        long row = 0;
+        String error = null;
+        while (true) {
+            ParsedRow parsed;
+            try {
+                parsed = source.next();
+            } catch (BadRequestException e) {
+                // The rest of the stream cannot be split into rows reliably: stop, but keep and report
+                // the chunks already committed and the valid rows read so far
+                row++;
+                chunk.add(row, ParsedRow.invalid(List.of(e.getMessage())));
+                error = "Import stopped at row " + row + ": " + e.getMessage();
+                break;
+            }
+            if (parsed == null) {
+                break;
+            }
+            row++;
+            chunk.add(row, parsed);
+            if (chunk.rows == chunkSize) {
+                chunks.add(flush(userId, chunk, row));
+                chunk = new Chunk(chunk.number + 1, row + 1, userId);
+            }
+        }
+        if (chunk.rows > 0) {
+            chunks.add(flush(userId, chunk, row));
+        }
+
+        long imported = chunks.stream().mapToLong(TodoImportChunkResult::getImported).sum();
+        return TodoImportResult.builder()
+                .rows(row)
+                .imported(imported)
+                .rejected(row - imported)
+                .chunks(chunks)
+                .error(error)
+                .build();
+    }
+
+    private TodoImportChunkResult flush(Long userId, Chunk chunk, long lastRow) {
+        TodoImportChunkResult.TodoImportChunkResultBuilder result = TodoImportChunkResult.builder()
+                .chunk(chunk.number)
+                .firstRow(chunk.firstRow)
+                .lastRow(lastRow)
+                .errors(chunk.errors);
+        if (chunk.valid == 0) {
+            return result.imported(0).rejected(chunk.rows).status(TodoImportChunkResult.Status.FAILED).build();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                    try {
+                        return connection.unwrap(PGConnection.class).getCopyAPI()
+                                .copyIn(COPY_SQL, new StringReader(chunk.copyData.toString()));
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Failed to stream COPY data", e);
+                    }
+                });
+                todoCounterService.applyDelta(userId, copied, chunk.completed, 0);
+            });
+        } catch (DataAccessException | IllegalStateException e) {
+            log.warn("Import chunk {} of user {} failed: {}", chunk.number, userId, e.getMessage());
+            return result.imported(0).rejected(chunk.rows).status(TodoImportChunkResult.Status.FAILED)
+                    .error("Chunk was rolled back: " + rootMessage(e))
+                    .build();
+        }
+        return result.imported(chunk.valid)
+                .rejected(chunk.rows - chunk.valid)
+                .status(chunk.valid == chunk.rows ? TodoImportChunkResult.Status.IMPORTED : TodoImportChunkResult.Status.PARTIAL)
+                .build();
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        return () -> {
+            String line;
+            do {
+                line = readLine(reader);
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return validate(rowReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                return ParsedRow.invalid(List.of("Malformed JSON: " + e.getOriginalMessage()));
+            }
+        };
+    }
+
+    private RowSource csvSource(BufferedReader reader) throws IOException {
+        List<String> header = CsvHelper.readRecord(reader, maxRowLength);
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(), i);
+        }
+        Integer titleColumn = columns.get("title");
+        if (titleColumn == null) {
+            throw new BadRequestException("CSV header must contain a title column");
+        }
+        Integer descriptionColumn = columns.get("description");
+        Integer completedColumn = columns.get("completed");
+
+        return () -> {
+            List<String> record = CsvHelper.readRecord(reader, maxRowLength);
+            if (record == null) {
+                return null;
+            }
+            String completed = field(record, completedColumn);
+            if (completed != null && !completed.isBlank()
+                    && !completed.equalsIgnoreCase("true") && !completed.equalsIgnoreCase("false")) {
+                return ParsedRow.invalid(List.of("completed must be true or false"));
+            }
+            String description = field(record, descriptionColumn);
+            return validate(TodoRequestDto.builder()
+                    .title(field(record, titleColumn))
+                    .description(description == null || description.isEmpty() ? null : description)
+                    .completed(Boolean.parseBoolean(completed))
+                    .build());
+        };
+    }
+
+    private ParsedRow validate(TodoRequestDto todo) {
+        if (todo == null) {
+            return ParsedRow.invalid(List.of("Row must be a JSON object"));
+        }
+        Set<ConstraintViolation<TodoRequestDto>> violations = validator.validate(todo);
+        if (violations.isEmpty()) {
+            return ParsedRow.valid(todo);
+        }
+        return ParsedRow.invalid(violations.stream().map(ConstraintViolation::getMessage).sorted().toList());
+    }
+
+    private static String field(List<String> record, Integer column) {
+        return column != null && column < record.size() ? record.get(column) : null;
+    }
+
+    // Like BufferedReader.readLine, but bounded so a single huge line cannot exhaust the heap
+    private String readLine(BufferedReader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                return line.toString();
+            }
+            if (c != '\r') {
+                if (line.length() == maxRowLength) {
+                    throw new BadRequestException("NDJSON line exceeds " + maxRowLength + " characters");
+                }
+                line.append((char) c);
+            }
+        }
+        return line.isEmpty() ? null : line.toString();
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        ParsedRow next() throws IOException;
+    }
+
+    private record ParsedRow(TodoRequestDto todo, List<String> errors) {
+        static ParsedRow valid(TodoRequestDto todo) {
+            return new ParsedRow(todo, null);
+        }
+
+        static ParsedRow invalid(List<String> errors) {
+            return new ParsedRow(null, errors);
+        }
+    }
+
+    private final class Chunk {
+        private final int number;
+        private final long firstRow;
+        private final String timestamp = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(LocalDateTime.now());
+        private final StringBuilder copyData = new StringBuilder();
+        private final List<TodoImportRowError> errors = new ArrayList<>();
+        private final Long userId;
+        private TodoIdBlocks ids;
+        private int rows;
+        private int valid;
+        private long completed;
+
+        private Chunk(int number, long firstRow, Long userId) {
+            this.number = number;
+            this.firstRow = firstRow;
+            this.userId = userId;
+        }
+
+        private void add(long row, ParsedRow parsed) {
+            rows++;
+            if (parsed.todo() == null) {
+                if (errors.size() < maxErrorsPerChunk) {
+                    errors.add(TodoImportRowError.builder().row(row).messages(parsed.errors()).build());
+                }
+                return;
+            }
+            TodoRequestDto todo = parsed.todo();
+            valid++;
+            if (todo.isCompleted()) {
+                completed++;
+            }
+            copyData.append(nextId()).append(',')
+                    .append(CsvHelper.quote(todo.getTitle())).append(',')
+                    .append(todo.getDescription() == null ? "" : CsvHelper.quote(todo.getDescription())).append(',')
+                    .append(todo.isCompleted()).append(',')
+                    .append(userId).append(',')
+                    .append(timestamp).append(',')
+                    .append(timestamp).append(",false,0\n");
+        }
+
+        // Blocks for the rest of the chunk are fetched at its first valid row: one sequence value per 50 rows
+        private long nextId() {
+            if (ids == null || !ids.hasNext()) {
+                ids = new TodoIdBlocks(jdbcTemplate.queryForList(TodoIdBlocks.NEXT_BLOCKS_SQL, Long.class,
+                        TodoIdBlocks.blocksFor(chunkSize - rows + 1)));
+            }
+            return ids.next();
+        }
+    }
+}
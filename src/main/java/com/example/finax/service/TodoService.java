@@ -1,32 +1,52 @@
 package com.example.finax.service;
 
+import com.example.finax.dto.todo.TodoBatchUpdateItem;
 import com.example.finax.dto.todo.TodoRequestDto;
 import com.example.finax.dto.todo.TodoDto;
 import com.example.finax.dto.todo.TodoStats;
+import com.example.finax.repository.TodoView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
 public interface TodoService {
 
-    Page<TodoDto> getAll(Boolean completed, Pageable pageable);
+    Page<TodoView> getAll(Boolean completed, Pageable pageable);
 
-    Page<TodoDto> getAllActive(Boolean completed, Pageable pageable);
+    Page<TodoView> getAllActive(Boolean completed, Pageable pageable);
+
+    Slice<TodoView> getAllSlice(Boolean completed, Pageable pageable);
+
+    Slice<TodoView> getAllActiveSlice(Boolean completed, Pageable pageable);
+
+    Window<TodoDto> getAllAfter(Boolean completed, String cursor, int size);
+
+    Window<TodoDto> getAllActiveAfter(Boolean completed, String cursor, int size);
 
     TodoDto getById(Long id);
 
     TodoDto create(TodoRequestDto createTodoDto);
 
+    List<TodoDto> createAll(List<TodoRequestDto> createTodoDtos);
+
     TodoDto update(Long id, TodoRequestDto updateTodoDto);
 
+    List<TodoDto> updateAll(List<TodoBatchUpdateItem> updates);
+
     void delete(Long id);
 
     void softDelete(Long id);
 
-    TodoDto toggle(Long id);
+    void deleteAll(List<Long> ids, boolean soft);
+
+    TodoDto toggle(Long id, Long version);
 
     TodoStats stats();
 
-    List<TodoDto> searchTodos(String keyword);
+    Long changeVersion();
+
+    Page<TodoDto> searchTodos(String keyword, Pageable pageable);
 }
\ No newline at end of file
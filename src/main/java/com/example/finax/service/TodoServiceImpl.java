@@ -1,129 +1,442 @@
 package com.example.finax.service;
 
+import com.example.finax.auth.AuthenticatedUser;
+import com.example.finax.config.ReadReplicaConfig;
+import com.example.finax.dto.todo.TodoBatchUpdateItem;
 import com.example.finax.dto.todo.TodoRequestDto;
 import com.example.finax.dto.todo.TodoDto;
 import com.example.finax.dto.todo.TodoStats;
+import com.example.finax.exception.BadRequestException;
+import com.example.finax.exception.ConflictException;
 import com.example.finax.exception.ResourceNotFoundException;
 import com.example.finax.mapper.TodoMapper;
 import com.example.finax.model.Todo;
 import com.example.finax.model.User;
 import com.example.finax.repository.TodoRepository;
+import com.example.finax.repository.TodoView;
+import com.example.finax.repository.TodoWriteResult;
+import com.example.finax.repository.UserRepository;
+import com.example.finax.util.CursorHelper;
+import com.example.finax.util.SearchQueryHelper;
+import io.micrometer.observation.annotation.Observed;
+import org.hibernate.jpa.SpecHints;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Observed(name = "finax.todo.service", contextualName = "todo-service")
 public class TodoServiceImpl implements TodoService {
 
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+
     @Autowired
     private TodoRepository todoRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private TodoMapper todoMapper;
 
+    @Autowired
+    private TodoCounterService todoCounterService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Only present with finax.datasource.replica.url
+    @Autowired(required = false)
+    private ReadReplicaConfig readReplicaConfig;
+
+    // Only present with finax.toggleWriteBehind.enabled=true
+    @Autowired(required = false)
+    private TodoToggleWriteBehind toggleWriteBehind;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TodoView> getAll(Boolean completed, Pageable pageable) {
+        Long userId = currentUserId();
+        Slice<TodoView> todos = getAllSlice(completed, pageable);
+        if (completed != null) {
+            // Counters do not split soft-deleted todos by completed, so this total is still counted
+            return withTotal(todos, () -> todoRepository.countByUserIdAndCompleted(userId, completed));
+        }
+        return withTotal(todos, () -> {
+            TodoStats stats = todoCounterService.stats(userId);
+            return stats.getTotal() + stats.getDeleted();
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TodoView> getAllActive(Boolean completed, Pageable pageable) {
+        Long userId = currentUserId();
+        Slice<TodoView> todos = getAllActiveSlice(completed, pageable);
+        return withTotal(todos, () -> {
+            TodoStats stats = todoCounterService.stats(userId);
+            if (completed == null) {
+                return stats.getTotal();
+            }
+            return completed ? stats.getCompleted() : stats.getPending();
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<TodoView> getAllSlice(Boolean completed, Pageable pageable) {
+        Long userId = currentUserId();
+        return (completed == null)
+                ? todoRepository.findByUserId(userId, pageable)
+                : todoRepository.findByUserIdAndCompleted(userId, completed, pageable);
+    }
+
     @Override
-    public Page<TodoDto> getAll(Boolean completed, Pageable pageable) {
-        User currentUser = getCurrentUser();
-        Page<Todo> todos = (completed == null)
-                ? todoRepository.findByUserId(currentUser.getId(), pageable)
-                : todoRepository.findByUserIdAndCompleted(currentUser.getId(), completed, pageable);
+    @Transactional(readOnly = true)
+    public Slice<TodoView> getAllActiveSlice(Boolean completed, Pageable pageable) {
+        Long userId = currentUserId();
+        return (completed == null)
+                ? todoRepository.findAllByUserIdAndDeletedFalse(userId, pageable)
+                : todoRepository.findByUserIdAndCompletedAndDeletedFalse(userId, completed, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<TodoDto> getAllAfter(Boolean completed, String cursor, int size) {
+        Long userId = currentUserId();
+        ScrollPosition position = CursorHelper.decode(cursor);
+        Window<Todo> todos = (completed == null)
+                ? todoRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, position, Limit.of(size))
+                : todoRepository.findByUserIdAndCompletedOrderByCreatedAtDescIdDesc(userId, completed, position, Limit.of(size));
         return todos.map(todoMapper::mapToDto);
     }
 
     @Override
-    public Page<TodoDto> getAllActive(Boolean completed, Pageable pageable) {
-        User currentUser = getCurrentUser();
-        Page<Todo> todos = (completed == null)
-                ? todoRepository.findAllByUserIdAndDeletedFalse(currentUser.getId(), pageable)
-                : todoRepository.findByUserIdAndCompletedAndDeletedFalse(currentUser.getId(), completed, pageable);
+    @Transactional(readOnly = true)
+    public Window<TodoDto> getAllActiveAfter(Boolean completed, String cursor, int size) {
+        Long userId = currentUserId();
+        ScrollPosition position = CursorHelper.decode(cursor);
+        Window<Todo> todos = (completed == null)
+                ? todoRepository.findByUserIdAndDeletedFalseOrderByCreatedAtDescIdDesc(userId, position, Limit.of(size))
+                : todoRepository.findByUserIdAndCompletedAndDeletedFalseOrderByCreatedAtDescIdDesc(userId, completed, position, Limit.of(size));
         return todos.map(todoMapper::mapToDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TodoDto getById(Long id) {
-        User currentUser = getCurrentUser();
-        Todo todo = todoRepository.findByUserIdAndId(currentUser.getId(), id)
-                .orElseThrow(() -> new ResourceNotFoundException("Todo not found"));
-        return todoMapper.mapToDto(todo);
+        if (readReplicaConfig != null) {
+            // A lagging replica can return a row older than the last eviction; use cached rows but do not add it
+            entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        }
+        return todoMapper.mapToDto(getByIdEntity(id));
     }
 
     @Override
     public TodoDto create(TodoRequestDto createTodoDto) {
-        User currentUser = getCurrentUser();
+        Long userId = currentUserId();
         Todo todo = todoMapper.mapToEntity(createTodoDto);
-        todo.setUser(currentUser);
+        todo.setUser(userReference(userId));
         Todo savedTodo = todoRepository.save(todo);
+        todoCounterService.applyDelta(userId, 1, savedTodo.isCompleted() ? 1 : 0, 0);
         return todoMapper.mapToDto(savedTodo);
     }
 
     @Override
-    public TodoDto update(Long id, TodoRequestDto updateTodoDto) {
-        Todo existingTodo = getByIdEntity(id);
-
-        if (updateTodoDto.getTitle() != null) {
-            existingTodo.setTitle(updateTodoDto.getTitle());
-        }
-        if (updateTodoDto.getDescription() != null) {
-            existingTodo.setDescription(updateTodoDto.getDescription());
+    public List<TodoDto> createAll(List<TodoRequestDto> createTodoDtos) {
+        Long userId = currentUserId();
+        User user = userReference(userId);
+        List<Todo> todos = new ArrayList<>(createTodoDtos.size());
+        for (TodoRequestDto createTodoDto : createTodoDtos) {
+            Todo todo = todoMapper.mapToEntity(createTodoDto);
+            todo.setUser(user);
+            todos.add(todo);
         }
-        existingTodo.setCompleted(updateTodoDto.isCompleted());
+        // Ids come from the pooled sequence, so the INSERTs are sent as JDBC batches on flush
+        List<Todo> savedTodos = todoRepository.saveAll(todos);
+        long completed = savedTodos.stream().filter(Todo::isCompleted).count();
+        todoCounterService.applyDelta(userId, savedTodos.size(), completed, 0);
+        return savedTodos.stream().map(todoMapper::mapToDto).toList();
+    }
 
-        Todo updatedTodo = todoRepository.save(existingTodo);
+    @Override
+    public TodoDto update(Long id, TodoRequestDto updateTodoDto) {
+        flushPendingToggles(List.of(id));
+        Long userId = currentUserId();
+        TodoWriteResult updatedTodo = todoRepository.update(userId, id, updateTodoDto.getTitle(),
+                        updateTodoDto.getDescription(), updateTodoDto.isCompleted(), updateTodoDto.getVersion())
+                .orElseThrow(() -> notFoundOrConflict(userId, id));
+        evictFromCache(id);
+        long completedDelta = updatedTodo.isDeleted() || updatedTodo.isWasCompleted() == updatedTodo.isCompleted()
+                ? 0 : (updatedTodo.isCompleted() ? 1 : -1);
+        todoCounterService.applyDelta(userId, 0, completedDelta, 0);
 
         return todoMapper.mapToDto(updatedTodo);
     }
 
     @Override
     public void delete(Long id) {
+        flushPendingToggles(List.of(id));
+        // The versioned DELETE needs the current row; a cached one may predate a write on another node
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
         Todo existingTodo = getByIdEntity(id);
         todoRepository.delete(existingTodo);
+        if (existingTodo.isDeleted()) {
+            todoCounterService.applyDelta(currentUserId(), 0, 0, -1);
+        } else {
+            todoCounterService.applyDelta(currentUserId(), -1, existingTodo.isCompleted() ? -1 : 0, 0);
+        }
     }
 
     @Override
     public void softDelete(Long id) {
-        Todo existingTodo = getByIdEntity(id);
-        existingTodo.setDeleted(true);
-        todoRepository.save(existingTodo);
+        flushPendingToggles(List.of(id));
+        Long userId = currentUserId();
+        TodoWriteResult deletedTodo = todoRepository.softDelete(userId, id).orElse(null);
+        if (deletedTodo == null) {
+            // Nothing updated: either already soft-deleted (no-op) or not found
+            if (!todoRepository.existsByUserIdAndId(userId, id)) {
+                throw new ResourceNotFoundException("Todo not found");
+            }
+            return;
+        }
+        evictFromCache(id);
+        todoCounterService.applyDelta(userId, -1, deletedTodo.isCompleted() ? -1 : 0, 1);
     }
 
     @Override
-    public TodoDto toggle(Long id) {
-        Todo existingTodo = getByIdEntity(id);
-        existingTodo.setCompleted(!existingTodo.isCompleted());
-        Todo toggledTodo = todoRepository.save(existingTodo);
+    public List<TodoDto> updateAll(List<TodoBatchUpdateItem> updates) {
+        Map<Long, TodoBatchUpdateItem> updatesById = new LinkedHashMap<>();
+        for (TodoBatchUpdateItem update : updates) {
+            if (updatesById.put(update.getId(), update) != null) {
+                throw new BadRequestException("Duplicate todo id in batch: " + update.getId());
+            }
+        }
+
+        flushPendingToggles(updatesById.keySet());
+        Map<Long, Todo> todosById = getAllByIdEntities(updatesById.keySet());
+        long completedDelta = 0;
+        for (TodoBatchUpdateItem update : updatesById.values()) {
+            Todo todo = todosById.get(update.getId());
+            if (update.getVersion() != null && !update.getVersion().equals(todo.getVersion())) {
+                throw new ConflictException("Todo " + todo.getId() + " was modified concurrently, reload and retry");
+            }
+            if (update.getTitle() != null) {
+                todo.setTitle(update.getTitle());
+            }
+            if (update.getDescription() != null) {
+                todo.setDescription(update.getDescription());
+            }
+            if (update.getCompleted() != null && update.getCompleted() != todo.isCompleted()) {
+                todo.setCompleted(update.getCompleted());
+                if (!todo.isDeleted()) {
+                    completedDelta += todo.isCompleted() ? 1 : -1;
+                }
+            }
+        }
+        // Dirty entities are written as batched UPDATEs; flush so the returned DTOs carry updatedAt
+        todoRepository.flush();
+        todoCounterService.applyDelta(currentUserId(), 0, completedDelta, 0);
+
+        return updatesById.keySet().stream().map(todosById::get).map(todoMapper::mapToDto).toList();
+    }
+
+    @Override
+    public void deleteAll(List<Long> ids, boolean soft) {
+        flushPendingToggles(ids);
+        Map<Long, Todo> todosById = getAllByIdEntities(new LinkedHashSet<>(ids));
+        long total = 0;
+        long completed = 0;
+        long deleted = 0;
+        for (Todo todo : todosById.values()) {
+            if (todo.isDeleted()) {
+                if (!soft) {
+                    deleted--;
+                }
+                continue;
+            }
+            total--;
+            completed -= todo.isCompleted() ? 1 : 0;
+            if (soft) {
+                todo.setDeleted(true);
+                deleted++;
+            }
+        }
+
+        if (!soft) {
+            // Ownership was verified above, so a single DELETE ... WHERE id IN (...) is safe
+            todoRepository.deleteAllByIdInBatch(todosById.keySet());
+        }
+        todoCounterService.applyDelta(currentUserId(), total, completed, deleted);
+    }
+
+    @Override
+    public TodoDto toggle(Long id, Long version) {
+        Long userId = currentUserId();
+        if (toggleWriteBehind != null) {
+            if (version == null) {
+                TodoDto acknowledged = journalToggle(userId, id);
+                if (acknowledged != null) {
+                    return acknowledged;
+                }
+            }
+            // Conditional toggles compare the stored version, and a full journal falls back to here
+            flushPendingToggles(List.of(id));
+        }
+        TodoWriteResult toggledTodo = todoRepository.toggle(userId, id, version)
+                .orElseThrow(() -> notFoundOrConflict(userId, id));
+        evictFromCache(id);
+        long completedDelta = toggledTodo.isDeleted() ? 0 : (toggledTodo.isCompleted() ? 1 : -1);
+        todoCounterService.applyDelta(userId, 0, completedDelta, 0);
         return todoMapper.mapToDto(toggledTodo);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public TodoStats stats() {
-        User currentUser = getCurrentUser();
-        long total = todoRepository.countByUserId(currentUser.getId());
-        long completed = todoRepository.countByUserIdAndCompleted(currentUser.getId(), true);
-        long pending = total - completed;
-        return new TodoStats(total, completed, pending);
+        return todoCounterService.stats(currentUserId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long changeVersion() {
+        return todoCounterService.changeVersion(currentUserId());
     }
 
     @Override
-    public List<TodoDto> searchTodos(String keyword) {
-        User currentUser = getCurrentUser();
-        List<Todo> todos = todoRepository.searchTodos(currentUser.getId(), keyword);
-        return todos.stream().map(todoMapper::mapToDto).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<TodoDto> searchTodos(String keyword, Pageable pageable) {
+        Long userId = currentUserId();
+        // Ranking defines the order; cap the page size so a single search stays bounded
+        Pageable limited = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_SEARCH_PAGE_SIZE));
+        Page<Todo> todos = todoRepository.searchTodos(userId, SearchQueryHelper.toPrefixQuery(keyword), limited);
+        return todos.map(todoMapper::mapToDto);
+    }
+
+    /**
+     * Turns a slice into a page, taking the total from the supplier instead of a COUNT over the rows.
+     * Like Spring Data, the total is not looked up when the slice itself shows it (a partial first page).
+     */
+    private static Page<TodoView> withTotal(Slice<TodoView> slice, LongSupplier total) {
+        return PageableExecutionUtils.getPage(slice.getContent(), slice.getPageable(), total);
+    }
+
+    /**
+     * Journals an unconditional toggle instead of writing it; the response shows
+     * the state the todo has once the toggle is applied. Its version is null
+     * because it is only assigned when the toggle reaches the database.
+     *
+     * @return The acknowledged todo, null if the journal is full
+     */
+    private TodoDto journalToggle(Long userId, Long id) {
+        // Read before the todo, so toggle() can tell whether a flush changed it in between
+        long removals = toggleWriteBehind.removals();
+        TodoView todo = getView(userId, id);
+        Boolean completed = toggleWriteBehind.toggle(userId, id, removals, todo.completed(),
+                () -> getView(userId, id).completed());
+        if (completed == null) {
+            return null;
+        }
+        TodoDto dto = todoMapper.mapToDto(todo);
+        dto.setCompleted(completed);
+        dto.setVersion(null);
+        return dto;
+    }
+
+    private TodoView getView(Long userId, Long id) {
+        return todoRepository.findViewByUserIdAndId(userId, id)
+                .orElseThrow(() -> new ResourceNotFoundException("Todo not found"));
+    }
+
+    // Pending write-behind toggles of these todos are applied first, in this transaction, so the todo's writes keep their order
+    private void flushPendingToggles(Collection<Long> ids) {
+        if (toggleWriteBehind != null) {
+            toggleWriteBehind.flushIfPending(ids);
+        }
     }
 
     private Todo getByIdEntity(Long id) {
-        User currentUser = getCurrentUser();
-        return todoRepository.findByUserIdAndId(currentUser.getId(), id)
+        Long userId = currentUserId();
+        // Lookup by primary key is served from the second-level cache; the owner check
+        // reads the user_id FK from the cached entry without loading the user
+        return todoRepository.findById(id)
+                .filter(todo -> todo.getUser() != null && todo.getUser().getId().equals(userId))
                 .orElseThrow(() -> new ResourceNotFoundException("Todo not found"));
     }
 
-    private User getCurrentUser() {
-        return (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    /**
+     * Evicts a todo written by a native statement from the second-level cache.
+     * Hibernate does not see those writes, so the entry is dropped now and again
+     * after commit, in case a concurrent read cached the old row in between.
+     */
+    private void evictFromCache(Long id) {
+        entityManagerFactory.getCache().evict(Todo.class, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entityManagerFactory.getCache().evict(Todo.class, id);
+                }
+            });
+        }
+    }
+
+    // Only reached when a conditional write matched no row, so the extra lookup stays off the happy path
+    private RuntimeException notFoundOrConflict(Long userId, Long id) {
+        if (todoRepository.existsByUserIdAndId(userId, id)) {
+            return new ConflictException("Todo was modified concurrently, reload and retry");
+        }
+        return new ResourceNotFoundException("Todo not found");
+    }
+
+    private Map<Long, Todo> getAllByIdEntities(Set<Long> ids) {
+        Long userId = currentUserId();
+        Map<Long, Todo> todosById = todoRepository.findAllByUserIdAndIdIn(userId, ids).stream()
+                .collect(Collectors.toMap(Todo::getId, Function.identity()));
+        if (todosById.size() != ids.size()) {
+            List<Long> missing = ids.stream().filter(id -> !todosById.containsKey(id)).toList();
+            throw new ResourceNotFoundException("Todos not found: " + missing);
+        }
+        return todosById;
+    }
+
+    private Long currentUserId() {
+        return ((AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).id();
+    }
+
+    // Uninitialized proxy: only the user_id FK is written, the user row is never selected
+    private User userReference(Long userId) {
+        return userRepository.getReferenceById(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package com.example.finax.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Journal of todo toggles in a memory-mapped file of fixed size, used as a
+ * ring buffer. The file starts with a header holding a random journal id,
+ * which the applied sequence number is stored under, so a checkpoint always
+ * belongs to the file it was taken for. Each record is 32 bytes: sequence
+ * number, todo id, user id and a check word written last, so a record torn by
+ * a crash is recognized and skipped. Records up to the last applied sequence number are released by
+ * truncate() and their slots are reused, so the journal only fills up when
+ * that many toggles are waiting to be applied.
+ * Records are in the OS page cache once appended and survive a crash of the
+ * process; with force set every append is also flushed to the device.
+ * Not thread-safe, callers serialize access.
+ */
+public class TodoToggleJournal implements AutoCloseable {
+
+    static final int RECORD_SIZE = 32;
+    static final int HEADER_SIZE = 32;
+
+    private static final long CHECK_SALT = 0x546f67676c654a6cL;
+    private static final long HEADER_MAGIC = 0x46696e6178546a31L;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final boolean force;
+    private final UUID id;
+
+    // Slot of the next append
+    private int position;
+    // Highest sequence number in the journal
+    private long lastSeq;
+    // Records up to this sequence number are applied and may be overwritten
+    private long releasedSeq;
+
+    /**
+     * A journaled toggle.
+     */
+    public record Entry(long seq, long todoId, long userId) {
+    }
+
+    /**
+     * Opens the journal at path, creating it with a new journal id if it does not exist.
+     *
+     * @throws IOException if the file has records but no valid header, e.g. it is not a journal
+     */
+    public TodoToggleJournal(Path path, int size, boolean force) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.slots = (size - HEADER_SIZE) / RECORD_SIZE;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * RECORD_SIZE);
+        this.force = force;
+        this.id = readOrCreateHeader(path);
+    }
+
+    /**
+     * @return The id of this journal file, generated when the file was created
+     */
+    public String id() {
+        return id.toString();
+    }
+
+    /**
+     * Reads every intact record and continues appending after the newest one.
+     * Records up to afterSeq count as released.
+     *
+     * @param afterSeq The last applied sequence number
+     * @return The records newer than afterSeq, in sequence order
+     */
+    public List<Entry> read(long afterSeq) {
+        List<Entry> entries = new ArrayList<>();
+        long newestSeq = 0;
+        int newestSlot = -1;
+        for (int slot = 0; slot < slots; slot++) {
+            int offset = offset(slot);
+            long seq = buffer.getLong(offset);
+            long todoId = buffer.getLong(offset + 8);
+            long userId = buffer.getLong(offset + 16);
+            if (buffer.getLong(offset + 24) != check(seq, todoId, userId)) {
+                // Never written, or torn by a crash
+                continue;
+            }
+            if (seq > newestSeq) {
+                newestSeq = seq;
+                newestSlot = slot;
+            }
+            if (seq > afterSeq) {
+                entries.add(new Entry(seq, todoId, userId));
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::seq));
+        position = (newestSlot + 1) % slots;
+        lastSeq = newestSeq;
+        releasedSeq = afterSeq;
+        return entries;
+    }
+
+    /**
+     * Appends a record in the slot after the last one.
+     *
+     * @param seq The sequence number, higher than every sequence number in the journal
+     * @return False if the journal is full
+     */
+    public boolean append(long seq, long todoId, long userId) {
+        if (seq <= lastSeq) {
+            throw new IllegalArgumentException("Sequence number " + seq + " is not after " + lastSeq);
+        }
+        if (size() >= slots) {
+            return false;
+        }
+        int offset = offset(position);
+        buffer.putLong(offset, seq);
+        buffer.putLong(offset + 8, todoId);
+        buffer.putLong(offset + 16, userId);
+        buffer.putLong(offset + 24, check(seq, todoId, userId));
+        if (force) {
+            buffer.force(offset, RECORD_SIZE);
+        }
+        position = (position + 1) % slots;
+        lastSeq = seq;
+        return true;
+    }
+
+    /**
+     * Releases the records up to appliedSeq, so their slots can be reused.
+     * Until they are overwritten they stay readable and are told apart by the
+     * applied sequence number passed to read().
+     */
+    public void truncate(long appliedSeq) {
+        releasedSeq = Math.max(releasedSeq, appliedSeq);
+    }
+
+    /**
+     * @return Number of records not released yet. Callers append consecutive sequence
+     * numbers; after a gap (a record lost in a crash) this overestimates until the next truncate
+     */
+    public int size() {
+        return (int) Math.min(slots, Math.max(0, lastSeq - releasedSeq));
+    }
+
+    /**
+     * @return The highest sequence number appended or read, 0 for an empty journal
+     */
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private UUID readOrCreateHeader(Path path) throws IOException {
+        long msb = buffer.getLong(8);
+        long lsb = buffer.getLong(16);
+        if (buffer.getLong(0) == HEADER_MAGIC && buffer.getLong(24) == check(HEADER_MAGIC, msb, lsb)) {
+            return new UUID(msb, lsb);
+        }
+        // A new file, or a header torn while the file was created, before any record was appended
+        for (int slot = 0; slot < slots; slot++) {
+            int offset = offset(slot);
+            if (buffer.getLong(offset + 24) == check(buffer.getLong(offset), buffer.getLong(offset + 8), buffer.getLong(offset + 16))) {
+                channel.close();
+                throw new IOException("Todo toggle journal " + path + " has records but no valid header");
+            }
+        }
+        UUID created = UUID.randomUUID();
+        buffer.putLong(0, HEADER_MAGIC);
+        buffer.putLong(8, created.getMostSignificantBits());
+        buffer.putLong(16, created.getLeastSignificantBits());
+        buffer.putLong(24, check(HEADER_MAGIC, created.getMostSignificantBits(), created.getLeastSignificantBits()));
+        // Checkpoints are stored under the id, so it must be on the device before the first append
+        buffer.force(0, HEADER_SIZE);
+        return created;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static long check(long seq, long todoId, long userId) {
+        return Long.rotateLeft(seq, 7) ^ Long.rotateLeft(todoId, 23) ^ Long.rotateLeft(userId, 41) ^ CHECK_SALT;
+    }
+}
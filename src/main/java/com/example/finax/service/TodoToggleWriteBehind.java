@@ -0,0 +1,522 @@
+package com.example.finax.service;
+
+import com.example.finax.model.Todo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * TodoToggleWriteBehind acknowledges todo toggles before they reach the
+ * database (opt-in, finax.toggleWriteBehind.enabled). A toggle is appended to
+ * a memory-mapped journal and counted per todo; every flushIntervalMs the
+ * pending toggles are applied in one transaction. Toggles of the same todo
+ * are coalesced: an even number cancels out and writes nothing, an odd number
+ * becomes a single flip. The transaction also updates the counters and stores
+ * under the journal file's id the sequence number up to which every toggle is
+ * applied, plus the applied toggles above it, so a restart replays exactly the
+ * toggles that were journaled but not applied.
+ * Other writes to a todo with pending toggles first apply that todo's toggles
+ * in the writer's transaction, so writes of a todo are applied in the order
+ * they were acknowledged. Reads can see the previous completed state until the
+ * next flush.
+ */
+@Service
+@ConditionalOnProperty(name = "finax.toggleWriteBehind.enabled", havingValue = "true")
+public class TodoToggleWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoToggleWriteBehind.class);
+
+    // The user_id join re-checks ownership; deleted todos are toggled like in TodoRepository.toggle
+    private static final String TOGGLE_SQL = """
+        UPDATE todos t
+        SET completed = NOT t.completed,
+            version = t.version + 1,
+            updated_at = LOCALTIMESTAMP
+        FROM unnest(?::bigint[], ?::bigint[]) AS p(id, user_id)
+        WHERE t.id = p.id AND t.user_id = p.user_id
+        RETURNING t.user_id, t.completed, t.deleted
+        """;
+
+    private static final String CHECKPOINT_SQL = """
+        INSERT INTO todo_toggle_checkpoints (journal_id, node_id, applied_seq, updated_at)
+        VALUES (?, ?, ?, now())
+        ON CONFLICT (journal_id) DO UPDATE
+        SET node_id = EXCLUDED.node_id,
+            applied_seq = GREATEST(todo_toggle_checkpoints.applied_seq, EXCLUDED.applied_seq),
+            updated_at = now()
+        """;
+
+    private static final String APPLIED_SEQ_SQL = "SELECT applied_seq FROM todo_toggle_checkpoints WHERE journal_id = ?";
+
+    private static final String APPLIED_INSERT_SQL = """
+        INSERT INTO todo_toggle_applied (journal_id, seq)
+        SELECT ?, unnest(?::bigint[])
+        ON CONFLICT DO NOTHING
+        """;
+
+    private static final String APPLIED_CLEANUP_SQL = "DELETE FROM todo_toggle_applied WHERE journal_id = ? AND seq <= ?";
+
+    private static final String APPLIED_SQL = "SELECT seq FROM todo_toggle_applied WHERE journal_id = ? AND seq > ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TodoCounterService todoCounterService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${finax.toggleWriteBehind.journalPath:data/todo-toggles.journal}")
+    private Path journalPath;
+
+    @Value("${finax.toggleWriteBehind.journalSize:64MB}")
+    private DataSize journalSize;
+
+    // Flush every append to the device; without it the journal survives a process crash, not a host crash
+    @Value("${finax.toggleWriteBehind.forceWrites:false}")
+    private boolean forceWrites;
+
+    @Value("${finax.toggleWriteBehind.maxBatchSize:1000}")
+    private int maxBatchSize;
+
+    // Names the node that owns the journal in todo_toggle_checkpoints; required, there is no shared default
+    @Value("${finax.toggleWriteBehind.nodeId:}")
+    private String nodeId;
+
+    // Guards the journal and the pending toggles; held for an append, never during database I/O.
+    // A ReentrantLock rather than synchronized, so virtual threads waiting for it are not pinned
+    private final ReentrantLock lock = new ReentrantLock();
+    // Serializes the scheduled, shutdown and replay flushes; writers' flushes only take their own todos
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Map<Long, Pending> pending = new HashMap<>();
+    // Sequence numbers journaled and not committed yet, queued or taken by a flush in progress
+    private final TreeSet<Long> unapplied = new TreeSet<>();
+    private long lastSeq;
+    // Incremented whenever a todo's pending toggles have all been applied and its entry is removed
+    private long removals;
+
+    private TodoToggleJournal journal;
+    private TransactionTemplate transactionTemplate;
+    private Counter appliedToggles;
+    private Counter coalescedToggles;
+    private Counter journalFullToggles;
+    // Set while appends fail, so a full journal is logged once per episode
+    private boolean journalFull;
+
+    private static final class Pending {
+        final long userId;
+        // Sequence numbers of the toggles journaled and not taken by a flush yet
+        final List<Long> queued = new ArrayList<>();
+        // Toggles taken by flushes whose transactions have not completed yet
+        int inFlight;
+        // Completed state acknowledged to the client by the last toggle
+        boolean completed;
+
+        Pending(long userId, boolean completed) {
+            this.userId = userId;
+            this.completed = completed;
+        }
+    }
+
+    private record Snapshot(long todoId, long userId, List<Long> seqs) {
+        int toggles() {
+            return seqs.size();
+        }
+    }
+
+    /**
+     * The toggles of one flush: all snapshots and the odd ones to write. checkpoint is the
+     * sequence number up to which every toggle is applied once the flush commits, null for
+     * a writer's flush; applied are the sequence numbers above it that the flush applies.
+     */
+    private record Batch(List<Snapshot> snapshot, List<Snapshot> flips, Long checkpoint, List<Long> applied) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (nodeId.isBlank()) {
+            throw new IllegalStateException("finax.toggleWriteBehind.nodeId must be set when write-behind toggles are enabled");
+        }
+        // Scheduled, shutdown and replay flushes; flushIfPending inside a transaction applies in that one
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        journal = new TodoToggleJournal(journalPath, Math.toIntExact(journalSize.toBytes()), forceWrites);
+
+        Gauge.builder("finax.todos.toggle.pending", this, TodoToggleWriteBehind::pendingCount)
+                .description("Todos with journaled toggles not yet applied to the database")
+                .register(meterRegistry);
+        appliedToggles = Counter.builder("finax.todos.toggle.flushed")
+                .description("Journaled toggles flushed, either applied as a flip or cancelled out by another toggle")
+                .tag("outcome", "applied")
+                .register(meterRegistry);
+        coalescedToggles = Counter.builder("finax.todos.toggle.flushed")
+                .description("Journaled toggles flushed, either applied as a flip or cancelled out by another toggle")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        journalFullToggles = Counter.builder("finax.todos.toggle.journalFull")
+                .description("Toggles written synchronously because the journal was full")
+                .register(meterRegistry);
+
+        replay();
+    }
+
+    /**
+     * Returns the current removal count, to be read before the todo's completed
+     * state is loaded and passed to toggle().
+     */
+    public long removals() {
+        lock.lock();
+        try {
+            return removals;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Journals a toggle and returns the completed state the todo has once it is applied.
+     *
+     * @param userId         The owner of the todo
+     * @param todoId         The todo to toggle
+     * @param removalsBefore removals() read before completed was loaded
+     * @param completed      The completed state loaded from the database
+     * @param reload         Loads the completed state again if a flush finished in between
+     * @return The new completed state, null if the journal is full and the caller has to toggle synchronously
+     */
+    public Boolean toggle(long userId, long todoId, long removalsBefore, boolean completed, BooleanSupplier reload) {
+        long loadedAt = removalsBefore;
+        boolean loaded = completed;
+        while (true) {
+            lock.lock();
+            try {
+                Pending entry = pending.get(todoId);
+                // Without a pending entry the loaded state is current, unless an entry was
+                // applied and removed after it was loaded (its flush may have changed the row)
+                if (entry != null || removals == loadedAt) {
+                    if (!journal.append(lastSeq + 1, todoId, userId)) {
+                        journalFullToggles.increment();
+                        if (!journalFull) {
+                            journalFull = true;
+                            log.warn("Todo toggle journal is full with {} unapplied toggles, toggling synchronously until flushed",
+                                    journal.size());
+                        }
+                        return null;
+                    }
+                    journalFull = false;
+                    lastSeq++;
+                    if (entry == null) {
+                        entry = new Pending(userId, loaded);
+                        pending.put(todoId, entry);
+                    }
+                    entry.queued.add(lastSeq);
+                    unapplied.add(lastSeq);
+                    entry.completed = !entry.completed;
+                    return entry.completed;
+                }
+                loadedAt = removals;
+            } finally {
+                lock.unlock();
+            }
+            loaded = reload.getAsBoolean();
+        }
+    }
+
+    /**
+     * Applies the pending toggles of the given todos, so a synchronous write of
+     * those todos is applied after them. Inside a transaction they are applied in
+     * it, on its connection: a flush in a transaction of its own would need a
+     * second pooled connection per waiting writer. Only these todos are taken and
+     * no lock is held until the transaction completes; the toggles stay pending if
+     * it rolls back.
+     *
+     * @param todoIds The todos about to be written
+     */
+    public void flushIfPending(Collection<Long> todoIds) {
+        Batch batch = takeBatch(todoIds);
+        if (batch == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            applyInOwnTransaction(batch);
+            return;
+        }
+
+        try {
+            apply(batch);
+        } catch (RuntimeException e) {
+            release(batch);
+            throw e;
+        }
+        // The caller reads these todos next, in this transaction; evicted again by complete()
+        evict(batch);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    complete(batch);
+                } else {
+                    release(batch);
+                }
+            }
+        });
+    }
+
+    /**
+     * Periodically applies pending toggles. On failure they stay pending and
+     * journaled and are retried by the next run.
+     */
+    @Scheduled(fixedDelayString = "${finax.toggleWriteBehind.flushIntervalMs:200}")
+    public void flush() {
+        try {
+            flushPending();
+        } catch (RuntimeException e) {
+            log.warn("Could not apply {} pending todo toggles, retrying: {}", pendingCount(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    private void flushPending() {
+        flushLock.lock();
+        try {
+            Batch batch = takeBatch(null);
+            if (batch != null) {
+                applyInOwnTransaction(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void applyInOwnTransaction(Batch batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(batch));
+        } catch (RuntimeException e) {
+            release(batch);
+            throw e;
+        }
+        complete(batch);
+    }
+
+    /**
+     * Takes the queued toggles of the given todos, or of all todos without a flush
+     * in progress (a writer's transaction may hold their rows) if todoIds is null.
+     * Null if there are none.
+     */
+    private Batch takeBatch(Collection<Long> todoIds) {
+        List<Snapshot> snapshot = new ArrayList<>();
+        Set<Long> taken = new HashSet<>();
+        lock.lock();
+        try {
+            if (todoIds == null) {
+                pending.forEach((todoId, entry) -> {
+                    if (entry.inFlight == 0) {
+                        take(todoId, entry, snapshot, taken);
+                    }
+                });
+            } else {
+                for (Long todoId : todoIds) {
+                    Pending entry = pending.get(todoId);
+                    if (entry != null) {
+                        take(todoId, entry, snapshot, taken);
+                    }
+                }
+            }
+            if (snapshot.isEmpty()) {
+                return null;
+            }
+            List<Snapshot> flips = snapshot.stream().filter(s -> s.toggles() % 2 == 1).toList();
+            if (todoIds != null) {
+                // A writer's flush records its toggles one by one and leaves the checkpoint row to the
+                // flusher, so it never waits for the flusher's transaction or the other way round
+                return new Batch(snapshot, flips, null, taken.stream().sorted().toList());
+            }
+            // Every toggle up to the oldest one left unapplied is applied once this batch commits
+            long checkpoint = lastSeq;
+            for (long seq : unapplied) {
+                if (!taken.contains(seq)) {
+                    checkpoint = seq - 1;
+                    break;
+                }
+            }
+            long covered = checkpoint;
+            return new Batch(snapshot, flips, checkpoint, taken.stream().filter(seq -> seq > covered).sorted().toList());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void take(long todoId, Pending entry, List<Snapshot> snapshot, Set<Long> taken) {
+        if (entry.queued.isEmpty()) {
+            return;
+        }
+        List<Long> seqs = List.copyOf(entry.queued);
+        entry.queued.clear();
+        entry.inFlight += seqs.size();
+        snapshot.add(new Snapshot(todoId, entry.userId, seqs));
+        taken.addAll(seqs);
+    }
+
+    // After the batch's transaction committed
+    private void complete(Batch batch) {
+        // Drop the old rows from the second-level cache before their entries go away
+        evict(batch);
+
+        long total = 0;
+        lock.lock();
+        try {
+            for (Snapshot applied : batch.snapshot()) {
+                Pending entry = pending.get(applied.todoId());
+                entry.inFlight -= applied.toggles();
+                applied.seqs().forEach(unapplied::remove);
+                if (entry.queued.isEmpty() && entry.inFlight == 0) {
+                    pending.remove(applied.todoId());
+                    removals++;
+                }
+                total += applied.toggles();
+            }
+            if (batch.checkpoint() != null) {
+                // The checkpoint is committed, the journal slots up to it can be reused
+                journal.truncate(batch.checkpoint());
+            }
+        } finally {
+            lock.unlock();
+        }
+        appliedToggles.increment(batch.flips().size());
+        coalescedToggles.increment(total - batch.flips().size());
+    }
+
+    // After the batch's transaction rolled back: its toggles are queued again, before newer ones
+    private void release(Batch batch) {
+        lock.lock();
+        try {
+            for (Snapshot snapshot : batch.snapshot()) {
+                Pending entry = pending.get(snapshot.todoId());
+                entry.inFlight -= snapshot.toggles();
+                entry.queued.addAll(0, snapshot.seqs());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(Batch batch) {
+        for (Snapshot flip : batch.flips()) {
+            entityManagerFactory.getCache().evict(Todo.class, flip.todoId());
+        }
+    }
+
+    private void apply(Batch batch) {
+        List<Snapshot> flips = batch.flips();
+        // Counter deltas per user, in user id order like the change feed triggers lock todo_counters
+        Map<Long, Long> completedDeltas = new TreeMap<>();
+        for (int from = 0; from < flips.size(); from += maxBatchSize) {
+            List<Snapshot> chunk = flips.subList(from, Math.min(from + maxBatchSize, flips.size()));
+            Long[] todoIds = chunk.stream().map(Snapshot::todoId).toArray(Long[]::new);
+            Long[] userIds = chunk.stream().map(Snapshot::userId).toArray(Long[]::new);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(TOGGLE_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", todoIds));
+                statement.setArray(2, connection.createArrayOf("bigint", userIds));
+                return statement;
+            }, rs -> {
+                long delta = rs.getBoolean("deleted") ? 0 : (rs.getBoolean("completed") ? 1 : -1);
+                completedDeltas.merge(rs.getLong("user_id"), delta, Long::sum);
+            });
+        }
+        completedDeltas.forEach((userId, delta) -> todoCounterService.applyDelta(userId, 0, delta, 0));
+        if (!batch.applied().isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(APPLIED_INSERT_SQL);
+                statement.setString(1, journal.id());
+                statement.setArray(2, connection.createArrayOf("bigint", batch.applied().toArray()));
+                return statement;
+            });
+        }
+        if (batch.checkpoint() != null) {
+            jdbcTemplate.update(CHECKPOINT_SQL, journal.id(), nodeId, batch.checkpoint());
+            jdbcTemplate.update(APPLIED_CLEANUP_SQL, journal.id(), batch.checkpoint());
+        }
+    }
+
+    /**
+     * Applies the toggles journaled before the last shutdown or crash that are
+     * newer than the journal's checkpoint and were not applied by a writer's
+     * flush. Without a checkpoint nothing of this journal file was applied yet.
+     * Runs before any request is served and fails startup if they cannot be applied.
+     */
+    private void replay() {
+        Long checkpoint = jdbcTemplate.query(APPLIED_SEQ_SQL, rs -> rs.next() ? rs.getLong(1) : 0L, journal.id());
+        long appliedSeq = checkpoint != null ? checkpoint : 0L;
+        Set<Long> applied = new HashSet<>(jdbcTemplate.queryForList(APPLIED_SQL, Long.class, journal.id(), appliedSeq));
+        lock.lock();
+        List<TodoToggleJournal.Entry> entries;
+        try {
+            entries = journal.read(appliedSeq).stream().filter(entry -> !applied.contains(entry.seq())).toList();
+            lastSeq = Math.max(appliedSeq, journal.lastSeq());
+            for (TodoToggleJournal.Entry entry : entries) {
+                // The acknowledged state is irrelevant here, the entries are applied before serving
+                pending.computeIfAbsent(entry.todoId(), id -> new Pending(entry.userId(), false)).queued.add(entry.seq());
+                unapplied.add(entry.seq());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!entries.isEmpty()) {
+            log.info("Replaying {} journaled todo toggles after checkpoint {}", entries.size(), appliedSeq);
+            flushPending();
+        }
+    }
+
+    private int pendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.finax.util;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class BCryptStrengthHelper {
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 14;
+
+    /**
+     * Picks the highest BCrypt cost whose hash takes at most the target time on this machine.
+     * Each cost step doubles the work, so the costs are timed in increasing order and the
+     * search stops at the first one over the target. The result is never below 10 (the
+     * BCryptPasswordEncoder default), so a slow or busy machine does not weaken new hashes.
+     *
+     * @param targetMillis Upper bound for a single hash
+     * @return The BCrypt cost (log rounds) to use for new hashes
+     */
+    public static int calibrate(long targetMillis) {
+        int strength = MIN_STRENGTH;
+        for (int candidate = MIN_STRENGTH; candidate <= MAX_STRENGTH; candidate++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidate);
+            // The first hash also warms up the JIT, so time the second one
+            encoder.encode("calibration");
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            strength = candidate;
+        }
+        return strength;
+    }
+}
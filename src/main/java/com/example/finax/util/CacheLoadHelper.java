@@ -0,0 +1,50 @@
+package com.example.finax.util;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+public class CacheLoadHelper {
+    /**
+     * Returns the cached value for a key, loading it on the calling thread on a miss.
+     * Unlike Cache.get(key, loader) the loader does not run inside the cache's
+     * ConcurrentHashMap compute lock, so a blocking (JDBC) load does not pin the
+     * carrier thread of a virtual thread. Concurrent callers for the same key wait
+     * on the in-flight load instead of loading again, and an invalidation during the
+     * load discards its result. Null results and failures are not cached. Hits, misses
+     * and load times are recorded in the cache statistics when enabled.
+     *
+     * @param cache  The async cache holding the in-flight and completed loads
+     * @param key    The key to look up
+     * @param loader Loads the value of a missing key, may return null
+     * @return The cached or loaded value, or null
+     */
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        // Only the empty future is installed under the lock; get() records the hit or miss
+        CompletableFuture<V> cached = cache.get(key, (k, executor) -> load);
+        if (cached != load) {
+            return join(cached);
+        }
+        try {
+            load.complete(loader.apply(key));
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        }
+        return join(load);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.finax.util;
+
+import com.example.finax.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvHelper {
+    /**
+     * Formats a single CSV field according to RFC 4180.
+     * Fields containing a separator, quote or line break are quoted and embedded
+     * quotes are doubled; null becomes an empty field.
+     *
+     * @param value The raw field value
+     * @return The value ready to be written between separators
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Always quotes a field, so empty strings stay distinguishable from NULL
+     * (PostgreSQL COPY csv format) and no value can be taken for a marker.
+     *
+     * @param value The raw field value, not null
+     * @return The quoted field
+     */
+    public static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Reads the next RFC 4180 record from a reader. Quoted fields may contain
+     * separators, doubled quotes and line breaks; both LF and CRLF end a record.
+     *
+     * @param reader    The reader positioned at the start of a record
+     * @param maxLength Maximum number of characters of a record
+     * @return The fields of the record, or null at the end of the input
+     * @throws BadRequestException if the record is longer than maxLength
+     */
+    public static List<String> readRecord(BufferedReader reader, int maxLength) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int length = 0;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (++length > maxLength) {
+                throw new BadRequestException("CSV record exceeds " + maxLength + " characters");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (length == 0) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
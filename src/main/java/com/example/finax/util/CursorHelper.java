@@ -0,0 +1,71 @@
+package com.example.finax.util;
+
+import com.example.finax.dto.todo.TodoDto;
+import com.example.finax.exception.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+public class CursorHelper {
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Encodes the keyset of a todo (createdAt + id) into an opaque, URL-safe cursor.
+     *
+     * @param createdAt Creation timestamp of the last todo on the page
+     * @param id        ID of the last todo on the page (tie-breaker)
+     * @return Opaque cursor string
+     */
+    public static String encode(LocalDateTime createdAt, Long id) {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode} into a keyset scroll position.
+     * A null or empty cursor denotes the first page.
+     *
+     * @param cursor Opaque cursor from a previous response
+     * @return Keyset position to continue scrolling from
+     * @throws BadRequestException if the cursor is malformed
+     */
+    public static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            LocalDateTime createdAt = LocalDateTime.parse(raw.substring(0, separator));
+            Long id = Long.valueOf(raw.substring(separator + 1));
+            return ScrollPosition.forward(Map.of("createdAt", createdAt, "id", id));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Builds the cursor pointing after the last todo of a window.
+     *
+     * @param window Window of todos ordered by createdAt DESC, id DESC
+     * @return Cursor for the next window, null when there is no further data
+     */
+    public static String nextCursor(Window<TodoDto> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        List<TodoDto> content = window.getContent();
+        TodoDto last = content.get(content.size() - 1);
+        return encode(last.getCreatedAt(), last.getId());
+    }
+}
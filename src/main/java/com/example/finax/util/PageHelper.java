@@ -1,7 +1,10 @@
 package com.example.finax.util;
 
+import com.example.finax.dto.todo.TodoDto;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class PageHelper {
@@ -21,4 +24,20 @@ public class PageHelper {
                 "totalPages", page.getTotalPages()
         );
     }
+
+    /**
+     * Converts a keyset Window of todos to a Map structure suitable for API responses.
+     * Instead of page totals it exposes an opaque cursor for the next window.
+     *
+     * @param window The keyset window containing the current slice of todos
+     * @return Map with content, size, hasNext and nextCursor (null on the last window)
+     */
+    public static Map<String, Object> toMap(Window<TodoDto> window) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("todos", window.getContent());
+        map.put("size", window.size());
+        map.put("hasNext", window.hasNext());
+        map.put("nextCursor", CursorHelper.nextCursor(window));
+        return map;
+    }
 }
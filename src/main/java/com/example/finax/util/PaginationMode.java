@@ -0,0 +1,27 @@
+package com.example.finax.util;
+
+import com.example.finax.exception.BadRequestException;
+
+public enum PaginationMode {
+    PAGE,
+    // Offset pagination without totals: size + 1 rows are read to tell whether a next page exists
+    SLICE,
+    CURSOR;
+
+    /**
+     * Resolves the pagination mode requested by the client.
+     * Passing a cursor parameter (even an empty one for the first page) implies cursor mode.
+     *
+     * @param mode   Optional "mode" request parameter ("page", "slice" or "cursor")
+     * @param cursor Optional "cursor" request parameter
+     * @return The pagination mode, PAGE when nothing was requested
+     */
+    public static PaginationMode resolve(String mode, String cursor) {
+        if (cursor != null) return CURSOR;
+        if (mode == null || mode.isBlank()) return PAGE;
+        for (PaginationMode value : values()) {
+            if (value.name().equalsIgnoreCase(mode.trim())) return value;
+        }
+        throw new BadRequestException("Unsupported pagination mode: " + mode);
+    }
+}
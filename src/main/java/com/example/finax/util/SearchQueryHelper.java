@@ -0,0 +1,32 @@
+package com.example.finax.util;
+
+import com.example.finax.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+public class SearchQueryHelper {
+    private static final int MAX_TERMS = 8;
+
+    /**
+     * Converts a free-text keyword into a PostgreSQL tsquery matching every term as a prefix.
+     * Only letters and digits are kept, so the result never contains tsquery operators
+     * supplied by the client.
+     *
+     * @param keyword Raw search keyword from the API request
+     * @return tsquery string such as "buy:* &amp; groc:*"
+     * @throws BadRequestException if the keyword contains no searchable terms
+     */
+    public static String toPrefixQuery(String keyword) {
+        String query = Arrays.stream(keyword.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+        if (query.isEmpty()) {
+            throw new BadRequestException("Search keyword must contain letters or digits");
+        }
+        return query;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.finax.util;
+
+import com.example.finax.exception.BadRequestException;
+
+public enum TodoFileFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    TodoFileFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Resolves the file format requested by the client.
+     *
+     * @param format Optional "format" request parameter ("ndjson" or "csv")
+     * @return The file format, NDJSON when nothing was requested
+     */
+    public static TodoFileFormat resolve(String format) {
+        if (format == null || format.isBlank()) return NDJSON;
+        for (TodoFileFormat value : values()) {
+            if (value.name().equalsIgnoreCase(format.trim())) return value;
+        }
+        throw new BadRequestException("Unsupported format: " + format);
+    }
+}
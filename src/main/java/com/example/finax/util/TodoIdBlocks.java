@@ -0,0 +1,65 @@
+package com.example.finax.util;
+
+import java.util.List;
+
+/**
+ * Hands out todo ids for raw inserts (COPY) the way Hibernate's pooled optimizer
+ * does for Todo.id: todos_id_seq is incremented by 50 (V5), and every value it
+ * returns reserves the block value-49..value. A raw insert that takes the id
+ * column default uses up one sequence value, and so a whole block, per row.
+ * Ids below 1 are skipped, so the block of a new sequence's first value is shorter.
+ */
+public class TodoIdBlocks {
+    public static final int BLOCK_SIZE = 50;
+
+    /**
+     * Query returning the requested number of sequence values, one per block.
+     */
+    public static final String NEXT_BLOCKS_SQL = "SELECT nextval('todos_id_seq') FROM generate_series(1, ?)";
+
+    private final List<Long> blocks;
+    private int block;
+    private long nextId;
+
+    /**
+     * @param blocks Sequence values returned by NEXT_BLOCKS_SQL
+     */
+    public TodoIdBlocks(List<Long> blocks) {
+        this.blocks = blocks;
+        this.nextId = blocks.isEmpty() ? 1 : firstId(blocks.get(0));
+    }
+
+    /**
+     * @param ids Number of ids needed
+     * @return Number of blocks (sequence values) to fetch for them
+     */
+    public static int blocksFor(long ids) {
+        return Math.toIntExact((ids + BLOCK_SIZE - 1) / BLOCK_SIZE);
+    }
+
+    /**
+     * @return True if next() has an id left
+     */
+    public boolean hasNext() {
+        return block < blocks.size() && nextId <= blocks.get(block);
+    }
+
+    /**
+     * @return The next unused id
+     * @throws IllegalStateException if all blocks are used up
+     */
+    public long next() {
+        if (!hasNext()) {
+            throw new IllegalStateException("All " + blocks.size() + " todo id blocks are used up");
+        }
+        long id = nextId++;
+        if (nextId > blocks.get(block) && ++block < blocks.size()) {
+            nextId = firstId(blocks.get(block));
+        }
+        return id;
+    }
+
+    private static long firstId(long value) {
+        return Math.max(1, value - BLOCK_SIZE + 1);
+    }
+}
@@ -0,0 +1,25 @@
+-- Indexes matching the TodoRepository list and count query shapes, so every page is an
+-- ordered index scan (no in-memory sort) that stops after LIMIT rows.
+-- idx_todos_user_created_id (V2) keeps serving the unfiltered lists (findByUserId, keyset) and the export.
+
+-- Lists filtered by status: WHERE user_id = ? AND completed = ? ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_todos_user_completed_created_id
+    ON todos(user_id, completed, created_at DESC, id DESC);
+
+-- Active lists: WHERE user_id = ? AND deleted = false ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_todos_active_user_created_id
+    ON todos(user_id, created_at DESC, id DESC)
+    WHERE deleted = false;
+
+-- Active lists filtered by status: WHERE user_id = ? AND completed = ? AND deleted = false ORDER BY ...
+CREATE INDEX IF NOT EXISTS idx_todos_active_user_completed_created_id
+    ON todos(user_id, completed, created_at DESC, id DESC)
+    WHERE deleted = false;
+
+-- Soft-deleted count fallback (countByUserIdAndDeletedTrue); deleted rows are a small fraction
+CREATE INDEX IF NOT EXISTS idx_todos_deleted_user
+    ON todos(user_id)
+    WHERE deleted = true;
+
+-- Every user_id lookup is covered by the composite indexes above and V2
+DROP INDEX IF EXISTS idx_todos_user_id;
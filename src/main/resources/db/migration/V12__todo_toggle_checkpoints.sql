@@ -0,0 +1,7 @@
+-- Write-behind toggles (finax.toggleWriteBehind.enabled): highest journal sequence number applied per node.
+-- Updated in the same transaction as the toggles, so a journal replay after a crash skips what was applied.
+CREATE TABLE IF NOT EXISTS todo_toggle_checkpoints (
+    node_id VARCHAR(255) PRIMARY KEY,
+    applied_seq BIGINT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+    );
@@ -0,0 +1,18 @@
+-- todo_changes notifications also carry the changed todo ids ("<userId>:<lastEventId>:<todoId>,<todoId>,..."),
+-- so every node can evict those todos from its second-level cache, not only the node that wrote them.
+-- NOTIFY payloads are limited to 8000 bytes: above that the ids are replaced by "*" (evict all cached todos).
+CREATE OR REPLACE FUNCTION todo_change_events_notify(events_from BIGINT) RETURNS VOID AS $$
+DECLARE
+    r RECORD;
+BEGIN
+    FOR r IN
+        SELECT user_id, max(id) AS last_id, string_agg(DISTINCT todo_id::text, ',') AS todo_ids
+        FROM todo_change_events
+        WHERE id >= events_from
+        GROUP BY user_id
+    LOOP
+        PERFORM pg_notify('todo_changes', r.user_id || ':' || r.last_id || ':'
+            || CASE WHEN length(r.todo_ids) > 7000 THEN '*' ELSE r.todo_ids END);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
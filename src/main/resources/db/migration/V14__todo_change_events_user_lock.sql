@@ -0,0 +1,80 @@
+-- Event ids of a user must become visible in id order. The triggers locked the users' todo_counters rows
+-- for that, but a user without a counters row yet got no lock, so concurrent transactions could commit
+-- event ids out of order. They now take a transaction-level advisory lock per user (keyed by user id,
+-- in user id order), which also covers users without a row.
+CREATE OR REPLACE FUNCTION todo_change_events_lock_users(user_ids BIGINT[]) RETURNS VOID AS $$
+DECLARE
+    locked_user_id BIGINT;
+BEGIN
+    FOR locked_user_id IN
+        SELECT DISTINCT u FROM unnest(user_ids) AS u WHERE u IS NOT NULL ORDER BY u
+    LOOP
+        PERFORM pg_advisory_xact_lock(locked_user_id);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION todos_record_insert() RETURNS TRIGGER AS $$
+DECLARE
+    first_id BIGINT;
+BEGIN
+    PERFORM todo_change_events_lock_users(ARRAY(SELECT user_id FROM new_rows));
+    WITH inserted AS (
+        INSERT INTO todo_change_events (user_id, todo_id, op)
+        SELECT n.user_id, n.id, 'created' FROM new_rows n WHERE n.user_id IS NOT NULL ORDER BY n.id
+        RETURNING id
+    )
+    SELECT min(id) INTO first_id FROM inserted;
+    IF first_id IS NOT NULL THEN
+        PERFORM todo_change_events_notify(first_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION todos_record_update() RETURNS TRIGGER AS $$
+DECLARE
+    first_id BIGINT;
+BEGIN
+    PERFORM todo_change_events_lock_users(ARRAY(SELECT user_id FROM new_rows));
+    WITH inserted AS (
+        INSERT INTO todo_change_events (user_id, todo_id, op)
+        SELECT n.user_id, n.id,
+               CASE
+                   WHEN n.deleted AND NOT o.deleted THEN 'deleted'
+                   WHEN n.completed <> o.completed
+                        AND n.title = o.title
+                        AND n.description IS NOT DISTINCT FROM o.description THEN 'toggled'
+                   ELSE 'updated'
+               END
+        FROM new_rows n
+        JOIN old_rows o ON o.id = n.id
+        WHERE n.user_id IS NOT NULL
+        ORDER BY n.id
+        RETURNING id
+    )
+    SELECT min(id) INTO first_id FROM inserted;
+    IF first_id IS NOT NULL THEN
+        PERFORM todo_change_events_notify(first_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION todos_record_delete() RETURNS TRIGGER AS $$
+DECLARE
+    first_id BIGINT;
+BEGIN
+    PERFORM todo_change_events_lock_users(ARRAY(SELECT user_id FROM old_rows));
+    WITH inserted AS (
+        INSERT INTO todo_change_events (user_id, todo_id, op)
+        SELECT o.user_id, o.id, 'deleted' FROM old_rows o WHERE o.user_id IS NOT NULL ORDER BY o.id
+        RETURNING id
+    )
+    SELECT min(id) INTO first_id FROM inserted;
+    IF first_id IS NOT NULL THEN
+        PERFORM todo_change_events_notify(first_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,8 @@
+-- Write-behind checkpoints are keyed by the id in the journal file's header instead of the node id, so a
+-- journal that is reopened under another node id (e.g. a recreated container on the same volume) finds
+-- its checkpoint, and nodes sharing a node id do not share one. node_id records the node that last applied it.
+-- Rows without a journal id belong to journals without a header, which are refused at startup.
+DELETE FROM todo_toggle_checkpoints;
+ALTER TABLE todo_toggle_checkpoints DROP CONSTRAINT IF EXISTS todo_toggle_checkpoints_pkey;
+ALTER TABLE todo_toggle_checkpoints ADD COLUMN IF NOT EXISTS journal_id VARCHAR(36) NOT NULL;
+ALTER TABLE todo_toggle_checkpoints ADD PRIMARY KEY (journal_id);
@@ -0,0 +1,8 @@
+-- Write-behind toggles applied by a writer's transaction (the toggles of the todos it writes) are recorded
+-- one by one above the journal's checkpoint, so such a flush never updates the checkpoint row that the
+-- background flusher writes. Rows at or below the checkpoint are deleted by the flusher.
+CREATE TABLE IF NOT EXISTS todo_toggle_applied (
+    journal_id VARCHAR(36) NOT NULL,
+    seq BIGINT NOT NULL,
+    PRIMARY KEY (journal_id, seq)
+    );
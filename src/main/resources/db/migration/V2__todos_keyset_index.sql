@@ -0,0 +1,2 @@
+-- Supports keyset (cursor) pagination: WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_todos_user_created_id ON todos(user_id, created_at DESC, id DESC);
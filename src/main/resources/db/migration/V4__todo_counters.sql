@@ -0,0 +1,20 @@
+-- Per-user todo counters maintained by TodoServiceImpl writes so /api/todos/stats is a primary-key read.
+-- total/completed only count todos that are not soft-deleted; deleted counts soft-deleted todos.
+CREATE TABLE IF NOT EXISTS todo_counters (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    total BIGINT NOT NULL DEFAULT 0,
+    completed BIGINT NOT NULL DEFAULT 0,
+    deleted BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL
+    );
+
+INSERT INTO todo_counters (user_id, total, completed, deleted, updated_at)
+SELECT u.id,
+       count(t.id) FILTER (WHERE NOT t.deleted),
+       count(t.id) FILTER (WHERE NOT t.deleted AND t.completed),
+       count(t.id) FILTER (WHERE t.deleted),
+       LOCALTIMESTAMP
+FROM users u
+LEFT JOIN todos t ON t.user_id = u.id
+GROUP BY u.id
+ON CONFLICT (user_id) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Todo ids are allocated by Hibernate from todos_id_seq in blocks of 50 (pooled optimizer),
+-- which allows JDBC insert batching. Must match allocationSize on Todo.id.
+ALTER SEQUENCE todos_id_seq INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- Optimistic locking: incremented by every write to a todo
+ALTER TABLE todos ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
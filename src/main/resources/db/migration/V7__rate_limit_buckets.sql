@@ -0,0 +1,10 @@
+-- Shared token buckets for RateLimitFilter when finax.rateLimit.store=jdbc.
+-- UNLOGGED: the state is disposable (a lost bucket is a full bucket), so it skips WAL writes.
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    tokens BIGINT NOT NULL,
+    granted BIGINT NOT NULL,
+    refill_at TIMESTAMPTZ NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_buckets_refill_at ON rate_limit_buckets(refill_at);
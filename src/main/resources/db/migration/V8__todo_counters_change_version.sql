@@ -0,0 +1,2 @@
+-- Per-user change version, bumped by every todo write; the ETag of the todo GET endpoints
+ALTER TABLE todo_counters ADD COLUMN IF NOT EXISTS change_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,122 @@
+-- Change feed for GET /api/todos/changes (SSE). Every write to todos is recorded by statement-level
+-- triggers, and one NOTIFY per affected user and statement ("<userId>:<lastEventId>") wakes the
+-- listener of each node. The events table is the source of truth for delivery and Last-Event-ID replay.
+-- Event ids of a user must become visible in id order, so the triggers lock the users' todo_counters rows
+-- (which every todo write updates later in the same transaction anyway) before allocating event ids.
+CREATE TABLE IF NOT EXISTS todo_change_events (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    todo_id BIGINT NOT NULL,
+    op VARCHAR(16) NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+    );
+
+CREATE INDEX IF NOT EXISTS idx_todo_change_events_user_id ON todo_change_events(user_id, id);
+CREATE INDEX IF NOT EXISTS idx_todo_change_events_created_at ON todo_change_events(created_at);
+
+CREATE OR REPLACE FUNCTION todo_change_events_notify(events_from BIGINT) RETURNS VOID AS $$
+DECLARE
+    r RECORD;
+BEGIN
+    FOR r IN
+        SELECT user_id, max(id) AS last_id
+        FROM todo_change_events
+        WHERE id >= events_from
+        GROUP BY user_id
+    LOOP
+        PERFORM pg_notify('todo_changes', r.user_id || ':' || r.last_id);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION todos_record_insert() RETURNS TRIGGER AS $$
+DECLARE
+    first_id BIGINT;
+BEGIN
+    PERFORM 1 FROM todo_counters c
+    WHERE c.user_id IN (SELECT DISTINCT user_id FROM new_rows)
+    ORDER BY c.user_id
+    FOR UPDATE;
+    WITH inserted AS (
+        INSERT INTO todo_change_events (user_id, todo_id, op)
+        SELECT n.user_id, n.id, 'created' FROM new_rows n WHERE n.user_id IS NOT NULL ORDER BY n.id
+        RETURNING id
+    )
+    SELECT min(id) INTO first_id FROM inserted;
+    IF first_id IS NOT NULL THEN
+        PERFORM todo_change_events_notify(first_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION todos_record_update() RETURNS TRIGGER AS $$
+DECLARE
+    first_id BIGINT;
+BEGIN
+    PERFORM 1 FROM todo_counters c
+    WHERE c.user_id IN (SELECT DISTINCT user_id FROM new_rows)
+    ORDER BY c.user_id
+    FOR UPDATE;
+    WITH inserted AS (
+        INSERT INTO todo_change_events (user_id, todo_id, op)
+        SELECT n.user_id, n.id,
+               CASE
+                   WHEN n.deleted AND NOT o.deleted THEN 'deleted'
+                   WHEN n.completed <> o.completed
+                        AND n.title = o.title
+                        AND n.description IS NOT DISTINCT FROM o.description THEN 'toggled'
+                   ELSE 'updated'
+               END
+        FROM new_rows n
+        JOIN old_rows o ON o.id = n.id
+        WHERE n.user_id IS NOT NULL
+        ORDER BY n.id
+        RETURNING id
+    )
+    SELECT min(id) INTO first_id FROM inserted;
+    IF first_id IS NOT NULL THEN
+        PERFORM todo_change_events_notify(first_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION todos_record_delete() RETURNS TRIGGER AS $$
+DECLARE
+    first_id BIGINT;
+BEGIN
+    PERFORM 1 FROM todo_counters c
+    WHERE c.user_id IN (SELECT DISTINCT user_id FROM old_rows)
+    ORDER BY c.user_id
+    FOR UPDATE;
+    WITH inserted AS (
+        INSERT INTO todo_change_events (user_id, todo_id, op)
+        SELECT o.user_id, o.id, 'deleted' FROM old_rows o WHERE o.user_id IS NOT NULL ORDER BY o.id
+        RETURNING id
+    )
+    SELECT min(id) INTO first_id FROM inserted;
+    IF first_id IS NOT NULL THEN
+        PERFORM todo_change_events_notify(first_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS todos_change_events_insert ON todos;
+CREATE TRIGGER todos_change_events_insert
+    AFTER INSERT ON todos
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION todos_record_insert();
+
+DROP TRIGGER IF EXISTS todos_change_events_update ON todos;
+CREATE TRIGGER todos_change_events_update
+    AFTER UPDATE ON todos
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION todos_record_update();
+
+DROP TRIGGER IF EXISTS todos_change_events_delete ON todos;
+CREATE TRIGGER todos_change_events_delete
+    AFTER DELETE ON todos
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION todos_record_delete();
@@ -0,0 +1,190 @@
+package com.example.finax.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query-plan regression test for TodoRepository. Every repository method is
+ * called against a seeded PostgreSQL database, the SQL Hibernate sends is
+ * captured and EXPLAINed as a generic plan (parameters unknown, as for a
+ * prepared statement). A plan fails the test when it reads todos with a
+ * sequential scan or sorts in memory, i.e. when a query no longer matches
+ * the indexes from the Flyway migrations.
+ * Requires Docker.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.finax.repository.TodoQueryPlanTest$RecordingStatementInspector",
+        "finax.changes.enabled=false",
+        "finax.jwtSecret=sZ+OWEfUj5PysUIzMkaBohypWo6C8AZwWS4K71mcVbdbK+mr4BdGUh6NKbxm+zTIK4KraJ5n7MHI1BU3KOsODQ==",
+        "finax.jwtAccessTokenValidity=86400000"
+})
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TodoQueryPlanTest {
+
+    // EXPLAIN (GENERIC_PLAN) needs PostgreSQL 16
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private static final int USERS = 200;
+    private static final int TODOS_PER_USER = 500;
+
+    private static final Pattern SORT_NODE = Pattern.compile("^\\s*(->\\s+)?(Incremental )?Sort\\s+\\(", Pattern.MULTILINE);
+
+    static {
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private List<Long> todoIds;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO users (name, email, password, created_at, updated_at)
+                SELECT 'Plan user ' || u, 'plan' || u || '@example.com', 'x', now(), now()
+                FROM generate_series(1, ?) u
+                """, USERS);
+        // A third completed, a tenth soft-deleted, one minute apart
+        jdbcTemplate.update("""
+                INSERT INTO todos (title, description, completed, deleted, user_id, created_at, updated_at)
+                SELECT 'Todo ' || n, 'Description of todo number ' || n, n % 3 = 0, n % 10 = 0, u.id,
+                       LOCALTIMESTAMP - n * INTERVAL '1 minute', LOCALTIMESTAMP
+                FROM users u
+                CROSS JOIN generate_series(1, ?) n
+                WHERE u.email LIKE 'plan%@example.com'
+                """, TODOS_PER_USER);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE todos");
+
+        userId = jdbcTemplate.queryForObject("SELECT min(id) FROM users WHERE email LIKE 'plan%@example.com'", Long.class);
+        todoIds = jdbcTemplate.queryForList("SELECT id FROM todos WHERE user_id = ? ORDER BY id LIMIT 3", Long.class, userId);
+    }
+
+    Stream<Arguments> repositoryMethods() {
+        Pageable page = PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Pageable unsorted = PageRequest.of(0, 20);
+        return Stream.of(
+                call("findByUserId", r -> r.findByUserId(userId, page)),
+                call("findByUserIdAndCompleted", r -> r.findByUserIdAndCompleted(userId, true, page)),
+                call("findAllByUserIdAndDeletedFalse", r -> r.findAllByUserIdAndDeletedFalse(userId, page)),
+                call("findByUserIdAndCompletedAndDeletedFalse", r -> r.findByUserIdAndCompletedAndDeletedFalse(userId, false, page)),
+                call("findByUserIdAndId", r -> r.findByUserIdAndId(userId, todoIds.get(0))),
+                call("findViewByUserIdAndId", r -> r.findViewByUserIdAndId(userId, todoIds.get(0))),
+                call("existsByUserIdAndId", r -> r.existsByUserIdAndId(userId, todoIds.get(0))),
+                call("findAllByUserIdAndIdIn", r -> r.findAllByUserIdAndIdIn(userId, todoIds)),
+                call("countByUserIdAndCompleted", r -> r.countByUserIdAndCompleted(userId, true)),
+                call("countByUserId", r -> r.countByUserId(userId)),
+                call("countByUserIdAndDeletedFalse", r -> r.countByUserIdAndDeletedFalse(userId)),
+                call("countByUserIdAndCompletedTrueAndDeletedFalse", r -> r.countByUserIdAndCompletedTrueAndDeletedFalse(userId)),
+                call("countByUserIdAndDeletedTrue", r -> r.countByUserIdAndDeletedTrue(userId)),
+                call("toggle", r -> r.toggle(userId, todoIds.get(0), null)),
+                call("softDelete", r -> r.softDelete(userId, todoIds.get(1))),
+                call("update", r -> r.update(userId, todoIds.get(2), "Renamed", null, true, null)),
+                call("findByUserIdOrderByCreatedAtDescIdDesc", r -> scroll(position ->
+                        r.findByUserIdOrderByCreatedAtDescIdDesc(userId, position, Limit.of(20)))),
+                call("findByUserIdAndCompletedOrderByCreatedAtDescIdDesc", r -> scroll(position ->
+                        r.findByUserIdAndCompletedOrderByCreatedAtDescIdDesc(userId, true, position, Limit.of(20)))),
+                call("findByUserIdAndDeletedFalseOrderByCreatedAtDescIdDesc", r -> scroll(position ->
+                        r.findByUserIdAndDeletedFalseOrderByCreatedAtDescIdDesc(userId, position, Limit.of(20)))),
+                call("findByUserIdAndCompletedAndDeletedFalseOrderByCreatedAtDescIdDesc", r -> scroll(position ->
+                        r.findByUserIdAndCompletedAndDeletedFalseOrderByCreatedAtDescIdDesc(userId, false, position, Limit.of(20)))),
+                // Ordered by rank, which no index provides: only the scans are checked
+                Arguments.of("searchTodos", (Consumer<TodoRepository>) r -> r.searchTodos(userId, "todo:* & number:*", unsorted), true)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryMethods")
+    void usesIndexes(String method, Consumer<TodoRepository> invocation, boolean sortAllowed) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        invocation.accept(todoRepository);
+        List<String> statements = new ArrayList<>(RecordingStatementInspector.STATEMENTS);
+
+        assertThat(statements).as("SQL issued by %s", method).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(plan).as("%s reads todos with a sequential scan:%n%s%n%s", method, sql, plan)
+                    .doesNotContain("Seq Scan");
+            if (!sortAllowed) {
+                assertThat(SORT_NODE.matcher(plan).find()).as("%s sorts in memory:%n%s%n%s", method, sql, plan)
+                        .isFalse();
+            }
+        }
+    }
+
+    private static Arguments call(String method, Consumer<TodoRepository> invocation) {
+        return Arguments.of(method, invocation, false);
+    }
+
+    // First window and the one after it, so both the plain and the keyset-predicate query are planned
+    private static void scroll(Function<ScrollPosition, Window<?>> query) {
+        Window<?> first = query.apply(ScrollPosition.keyset());
+        query.apply(first.positionAt(first.size() - 1));
+    }
+
+    private String explain(String sql) {
+        // JDBC placeholders become numbered parameters that GENERIC_PLAN leaves unbound
+        StringBuilder positional = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                positional.append('$').append(++parameter);
+            } else {
+                positional.append(c);
+            }
+        }
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + positional, String.class));
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}